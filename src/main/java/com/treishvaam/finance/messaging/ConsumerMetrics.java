@@ -0,0 +1,120 @@
+package com.treishvaam.financeapi.messaging;
+
+import com.treishvaam.financeapi.config.RabbitMQConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumer-side RabbitMQ metrics, exported through the actuator/prometheus registry:
+ *
+ * <ul>
+ *   <li>{@code messaging.consumer.received} / {@code messaging.consumer.redelivered}: throughput
+ *       and redeliveries per queue
+ *   <li>{@code messaging.consumer.lag}: time from the outbox commit (message timestamp) to receipt,
+ *       i.e. how long readers see stale search results after an edit
+ *   <li>{@code messaging.consumer.outcome}: acked, retried and dead-lettered messages
+ *   <li>{@code messaging.queue.depth}: ready messages per queue, sampled periodically so that
+ *       scrapes do not hit the broker
+ * </ul>
+ */
+@Component
+public class ConsumerMetrics {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConsumerMetrics.class);
+
+  private static final List<String> SAMPLED_QUEUES =
+      List.of(
+          RabbitMQConfig.QUEUE_SEARCH_INDEX,
+          RabbitMQConfig.QUEUE_SITEMAP,
+          RabbitMQConfig.QUEUE_DEAD_LETTER);
+
+  private final MeterRegistry meterRegistry;
+  private final AmqpAdmin amqpAdmin;
+  private final Map<String, AtomicLong> queueDepths = new ConcurrentHashMap<>();
+
+  public ConsumerMetrics(MeterRegistry meterRegistry, AmqpAdmin amqpAdmin) {
+    this.meterRegistry = meterRegistry;
+    this.amqpAdmin = amqpAdmin;
+    for (String queue : SAMPLED_QUEUES) {
+      AtomicLong depth = new AtomicLong();
+      queueDepths.put(queue, depth);
+      Gauge.builder("messaging.queue.depth", depth, AtomicLong::get)
+          .tag("queue", queue)
+          .description("Messages ready for delivery")
+          .register(meterRegistry);
+    }
+  }
+
+  /** Container post-processor that records receipt, redelivery and lag of every message. */
+  public MessagePostProcessor receiveRecorder(String queue) {
+    Counter received = counter("messaging.consumer.received", queue);
+    Counter redelivered = counter("messaging.consumer.redelivered", queue);
+    Timer lag =
+        Timer.builder("messaging.consumer.lag")
+            .tag("queue", queue)
+            .description("Time from publication to receipt")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    return message -> {
+      received.increment();
+      if (Boolean.TRUE.equals(message.getMessageProperties().getRedelivered())) {
+        redelivered.increment();
+      }
+      if (message.getMessageProperties().getTimestamp() != null) {
+        long age =
+            System.currentTimeMillis() - message.getMessageProperties().getTimestamp().getTime();
+        lag.record(Duration.ofMillis(Math.max(0, age)));
+      }
+      return message;
+    };
+  }
+
+  public void acked(String queue, int count) {
+    outcome(queue, "acked").increment(count);
+  }
+
+  public void retried(String queue, int count) {
+    outcome(queue, "retried").increment(count);
+  }
+
+  public void deadLettered(String queue, int count) {
+    outcome(queue, "dead_lettered").increment(count);
+  }
+
+  @Scheduled(fixedDelayString = "${app.messaging.queue-depth-sample-ms:15000}")
+  public void sampleQueueDepths() {
+    for (Map.Entry<String, AtomicLong> entry : queueDepths.entrySet()) {
+      try {
+        QueueInformation info = amqpAdmin.getQueueInfo(entry.getKey());
+        if (info != null) entry.getValue().set(info.getMessageCount());
+      } catch (Exception e) {
+        logger.debug("Could not sample depth of {}: {}", entry.getKey(), e.getMessage());
+      }
+    }
+  }
+
+  private Counter outcome(String queue, String outcome) {
+    return Counter.builder("messaging.consumer.outcome")
+        .tag("queue", queue)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private Counter counter(String name, String queue) {
+    return Counter.builder(name).tag("queue", queue).register(meterRegistry);
+  }
+}
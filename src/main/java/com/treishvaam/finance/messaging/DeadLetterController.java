@@ -0,0 +1,85 @@
+package com.treishvaam.financeapi.messaging;
+
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/dead-letters")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class DeadLetterController {
+
+  private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+
+  private final DeadLetterService deadLetterService;
+
+  public DeadLetterController(DeadLetterService deadLetterService) {
+    this.deadLetterService = deadLetterService;
+  }
+
+  // Summary of the oldest messages by routing key / event type, with dead-letter reasons
+  @GetMapping
+  public ResponseEntity<?> inspect(@RequestParam(defaultValue = "200") int limit) {
+    try {
+      return ResponseEntity.ok(deadLetterService.inspect(limit));
+    } catch (Exception e) {
+      logger.error("Could not inspect the dead-letter queue", e);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(Map.of("message", "Could not inspect the dead-letter queue: " + e.getMessage()));
+    }
+  }
+
+  // Progress of the last replay / discard run
+  @GetMapping("/runs")
+  public ResponseEntity<DeadLetterReplayStatus> getRunStatus() {
+    return ResponseEntity.ok(deadLetterService.status());
+  }
+
+  @PostMapping("/replay")
+  public ResponseEntity<?> replay(
+      @RequestParam(required = false) String routingKey,
+      @RequestParam(required = false) String eventType,
+      @RequestParam(required = false) Long entityId,
+      @RequestParam(required = false) Integer rate,
+      @RequestParam(defaultValue = "10000") int max) {
+    return start(
+        DeadLetterReplayStatus.REPLAY,
+        new DeadLetterService.Filter(routingKey, eventType, entityId),
+        rate,
+        max);
+  }
+
+  // Without a filter, discarding requires all=true so the whole queue is not dropped by accident
+  @PostMapping("/discard")
+  public ResponseEntity<?> discard(
+      @RequestParam(required = false) String routingKey,
+      @RequestParam(required = false) String eventType,
+      @RequestParam(required = false) Long entityId,
+      @RequestParam(defaultValue = "false") boolean all,
+      @RequestParam(defaultValue = "10000") int max) {
+    DeadLetterService.Filter filter = new DeadLetterService.Filter(routingKey, eventType, entityId);
+    if (filter.isEmpty() && !all) {
+      return ResponseEntity.badRequest()
+          .body(Map.of("message", "Give routingKey, eventType or entityId, or all=true"));
+    }
+    return start(DeadLetterReplayStatus.DISCARD, filter, null, max);
+  }
+
+  private ResponseEntity<?> start(
+      String mode, DeadLetterService.Filter filter, Integer rate, int max) {
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED)
+          .body(deadLetterService.start(mode, filter, rate, max));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    }
+  }
+}
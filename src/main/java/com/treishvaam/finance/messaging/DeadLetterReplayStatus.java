@@ -0,0 +1,42 @@
+package com.treishvaam.financeapi.messaging;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Progress of the last dead-letter replay or discard started on this node.
+ *
+ * @param replayed messages published back to the exchange
+ * @param deduplicated messages dropped because an identical event was already replayed in this run
+ * @param discarded messages dropped on request (DISCARD mode)
+ * @param skipped messages that did not match the filter and were left in the queue
+ * @param reasons why the processed messages had been dead-lettered, count per reason
+ */
+public record DeadLetterReplayStatus(
+    String state,
+    String mode,
+    DeadLetterService.Filter filter,
+    int ratePerSecond,
+    long scanned,
+    long replayed,
+    long deduplicated,
+    long discarded,
+    long skipped,
+    Map<String, Long> reasons,
+    Instant startedAt,
+    Instant finishedAt,
+    String error) {
+
+  public static final String IDLE = "IDLE";
+  public static final String RUNNING = "RUNNING";
+  public static final String COMPLETED = "COMPLETED";
+  public static final String FAILED = "FAILED";
+
+  public static final String REPLAY = "REPLAY";
+  public static final String DISCARD = "DISCARD";
+
+  static DeadLetterReplayStatus idle() {
+    return new DeadLetterReplayStatus(
+        IDLE, null, null, 0, 0, 0, 0, 0, 0, Map.of(), null, null, null);
+  }
+}
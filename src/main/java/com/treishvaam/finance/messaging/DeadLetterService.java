@@ -0,0 +1,353 @@
+package com.treishvaam.financeapi.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import com.treishvaam.financeapi.config.RabbitMQConfig;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Inspects {@code dead_letter_queue} and replays (or discards) its messages.
+ *
+ * <p>A run reads at most the number of messages queued when it started, so events that fail again
+ * and land back in the DLQ are not picked up a second time. Replays go back to {@code
+ * internal.exchange} with their original routing key at a fixed rate, one broker-confirmed publish
+ * at a time, and identical events (routing key, type, entity id) are replayed once per run.
+ * Messages that do not match the filter are held unacked and requeued in place at the end.
+ */
+@Service
+public class DeadLetterService {
+
+  private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+
+  static final String REPLAY_COUNT_HEADER = "x-replay-count";
+
+  private static final int MAX_INSPECT = 1000;
+  private static final int MAX_RATE = 500;
+  private static final int SAMPLE_IDS = 20;
+
+  // Broker-maintained headers; a replayed message starts a fresh dead-letter history
+  private static final Set<String> DEATH_HEADERS =
+      Set.of(
+          "x-death",
+          "x-first-death-exchange",
+          "x-first-death-queue",
+          "x-first-death-reason",
+          "x-last-death-exchange",
+          "x-last-death-queue",
+          "x-last-death-reason");
+
+  private static final Map<String, String> ROUTING_KEY_BY_QUEUE =
+      Map.of(
+          RabbitMQConfig.QUEUE_SEARCH_INDEX, RabbitMQConfig.ROUTING_KEY_SEARCH,
+          RabbitMQConfig.QUEUE_SITEMAP, RabbitMQConfig.ROUTING_KEY_SITEMAP);
+
+  /** Restricts a run to matching messages; null fields match anything. */
+  public record Filter(String routingKey, String eventType, Long entityId) {
+
+    public boolean isEmpty() {
+      return routingKey == null && eventType == null && entityId == null;
+    }
+
+    boolean matches(Letter letter) {
+      if (routingKey != null && !routingKey.equals(letter.routingKey())) return false;
+      EventMessage event = letter.event();
+      if (eventType != null && (event == null || !eventType.equals(event.getEventType()))) {
+        return false;
+      }
+      return entityId == null || (event != null && entityId.equals(event.getEntityId()));
+    }
+  }
+
+  private record Letter(
+      long tag,
+      MessageProperties properties,
+      byte[] body,
+      String routingKey,
+      EventMessage event,
+      String reason) {
+
+    String eventType() {
+      return event != null ? event.getEventType() : "UNREADABLE";
+    }
+
+    String dedupeKey() {
+      if (event == null) return "tag:" + tag;
+      return routingKey + "|" + event.getEventType() + "|" + event.getEntityId();
+    }
+  }
+
+  private static final class GroupTally {
+    long messages;
+    final Set<Long> entities = new LinkedHashSet<>();
+    final Map<String, Long> reasons = new TreeMap<>();
+  }
+
+  private final RabbitTemplate rabbitTemplate;
+  private final ObjectMapper objectMapper;
+  private final MessagePropertiesConverter propertiesConverter =
+      new DefaultMessagePropertiesConverter();
+  private final AtomicBoolean running = new AtomicBoolean();
+  private volatile DeadLetterReplayStatus status = DeadLetterReplayStatus.idle();
+
+  @Value("${app.messaging.dlq.replay-rate:20}")
+  private int defaultRate;
+
+  @Value("${app.messaging.dlq.confirm-timeout-ms:5000}")
+  private long confirmTimeoutMs;
+
+  public DeadLetterService(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  public DeadLetterReplayStatus status() {
+    return status;
+  }
+
+  /** Reads up to {@code limit} of the oldest messages and puts them all back. */
+  public DeadLetterSummary inspect(int limit) {
+    int max = Math.max(1, Math.min(limit, MAX_INSPECT));
+    return rabbitTemplate.execute(
+        channel -> {
+          long queued =
+              channel.queueDeclarePassive(RabbitMQConfig.QUEUE_DEAD_LETTER).getMessageCount();
+          Map<List<String>, GroupTally> tallies = new LinkedHashMap<>();
+          int inspected = 0;
+          long lastTag = -1;
+          try {
+            while (inspected < Math.min(max, queued)) {
+              GetResponse response = channel.basicGet(RabbitMQConfig.QUEUE_DEAD_LETTER, false);
+              if (response == null) break;
+              inspected++;
+              lastTag = response.getEnvelope().getDeliveryTag();
+              Letter letter = read(response);
+              GroupTally tally =
+                  tallies.computeIfAbsent(
+                      List.of(letter.routingKey(), letter.eventType()), k -> new GroupTally());
+              tally.messages++;
+              if (letter.event() != null && letter.event().getEntityId() != null) {
+                tally.entities.add(letter.event().getEntityId());
+              }
+              tally.reasons.merge(letter.reason(), 1L, Long::sum);
+            }
+          } finally {
+            if (lastTag >= 0) channel.basicNack(lastTag, true, true);
+          }
+          List<DeadLetterSummary.Group> groups = new ArrayList<>();
+          tallies.forEach(
+              (key, tally) ->
+                  groups.add(
+                      new DeadLetterSummary.Group(
+                          key.get(0),
+                          key.get(1),
+                          tally.messages,
+                          tally.entities.size(),
+                          tally.entities.stream().limit(SAMPLE_IDS).toList(),
+                          tally.reasons)));
+          return new DeadLetterSummary(queued, inspected, groups);
+        });
+  }
+
+  /**
+   * Starts a background run over the DLQ.
+   *
+   * @param mode {@link DeadLetterReplayStatus#REPLAY} or {@link DeadLetterReplayStatus#DISCARD}
+   * @param ratePerSecond replay rate; null for the configured default
+   * @param max upper bound on messages read in this run
+   * @throws IllegalStateException if a run is already in progress on this node
+   */
+  public DeadLetterReplayStatus start(String mode, Filter filter, Integer ratePerSecond, int max) {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("A dead-letter run is already in progress");
+    }
+    int rate = Math.max(1, Math.min(ratePerSecond != null ? ratePerSecond : defaultRate, MAX_RATE));
+    Run run = new Run(mode, filter, rate);
+    status = run.snapshot(DeadLetterReplayStatus.RUNNING, null);
+    try {
+      Thread.ofVirtual()
+          .name("dead-letter-" + mode.toLowerCase(Locale.ROOT))
+          .start(() -> execute(run, Math.max(1, max)));
+    } catch (RuntimeException e) {
+      running.set(false);
+      throw e;
+    }
+    return status;
+  }
+
+  private void execute(Run run, int max) {
+    try {
+      rabbitTemplate.execute(
+          channel -> {
+            process(channel, run, max);
+            return null;
+          });
+      status = run.snapshot(DeadLetterReplayStatus.COMPLETED, null);
+      logger.info("Dead-letter {} finished: {}", run.mode, status);
+    } catch (Exception e) {
+      logger.error("Dead-letter {} failed", run.mode, e);
+      status = run.snapshot(DeadLetterReplayStatus.FAILED, e.getMessage());
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private void process(Channel channel, Run run, int max) throws Exception {
+    channel.confirmSelect();
+    long queued = channel.queueDeclarePassive(RabbitMQConfig.QUEUE_DEAD_LETTER).getMessageCount();
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / run.rate;
+    long nextSendAt = System.nanoTime();
+    Set<String> replayed = new HashSet<>();
+    long heldUpTo = -1; // Highest delivery tag of a skipped message, still unacked
+    long inFlight = -1; // Delivery tag being processed, unacked until it is done
+
+    try {
+      for (long n = 0; n < Math.min(queued, max); n++) {
+        GetResponse response = channel.basicGet(RabbitMQConfig.QUEUE_DEAD_LETTER, false);
+        if (response == null) break;
+        Letter letter = read(response);
+        inFlight = letter.tag();
+
+        if (!run.filter.matches(letter)) {
+          heldUpTo = letter.tag();
+          run.count(Counter.SKIPPED, null);
+        } else if (DeadLetterReplayStatus.DISCARD.equals(run.mode)) {
+          channel.basicAck(letter.tag(), false);
+          run.count(Counter.DISCARDED, letter.reason());
+        } else if (!replayed.add(letter.dedupeKey())) {
+          channel.basicAck(letter.tag(), false);
+          run.count(Counter.DEDUPLICATED, letter.reason());
+        } else {
+          long wait = nextSendAt - System.nanoTime();
+          if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+          nextSendAt = Math.max(nextSendAt, System.nanoTime()) + intervalNanos;
+
+          channel.basicPublish(
+              RabbitMQConfig.EXCHANGE,
+              letter.routingKey(),
+              propertiesConverter.fromMessageProperties(replayProperties(letter), "UTF-8"),
+              letter.body());
+          channel.waitForConfirmsOrDie(confirmTimeoutMs);
+          channel.basicAck(letter.tag(), false);
+          run.count(Counter.REPLAYED, letter.reason());
+        }
+        inFlight = -1;
+        status = run.snapshot(DeadLetterReplayStatus.RUNNING, null);
+      }
+    } finally {
+      // Skipped messages (and one that failed mid-replay) go back to their place in the queue
+      long requeueUpTo = Math.max(heldUpTo, inFlight);
+      if (requeueUpTo >= 0 && channel.isOpen()) channel.basicNack(requeueUpTo, true, true);
+    }
+  }
+
+  private MessageProperties replayProperties(Letter letter) {
+    MessageProperties properties = letter.properties();
+    Object previous = properties.getHeaders().get(REPLAY_COUNT_HEADER);
+    int count = previous instanceof Number number ? number.intValue() : 0;
+    DEATH_HEADERS.forEach(properties.getHeaders()::remove);
+    properties.setHeader(REPLAY_COUNT_HEADER, count + 1);
+    return properties;
+  }
+
+  private Letter read(GetResponse response) {
+    MessageProperties properties =
+        propertiesConverter.toMessageProperties(
+            response.getProps(), response.getEnvelope(), "UTF-8");
+    EventMessage event;
+    try {
+      event = objectMapper.readValue(response.getBody(), EventMessage.class);
+    } catch (Exception e) {
+      event = null;
+    }
+    List<Map<String, ?>> deaths = properties.getXDeathHeader();
+    Map<String, ?> death = deaths != null && !deaths.isEmpty() ? deaths.get(0) : Map.of();
+    return new Letter(
+        response.getEnvelope().getDeliveryTag(),
+        properties,
+        response.getBody(),
+        originalRoutingKey(properties, death),
+        event,
+        reason(properties, death));
+  }
+
+  private static String originalRoutingKey(MessageProperties properties, Map<String, ?> death) {
+    if (death.get("routing-keys") instanceof List<?> keys && !keys.isEmpty()) {
+      return String.valueOf(keys.get(0));
+    }
+    String queue = String.valueOf(death.get("queue"));
+    return ROUTING_KEY_BY_QUEUE.getOrDefault(queue, properties.getReceivedRoutingKey());
+  }
+
+  private static String reason(MessageProperties properties, Map<String, ?> death) {
+    String reason = death.isEmpty() ? "unknown" : death.get("queue") + ": " + death.get("reason");
+    Object exception = properties.getHeaders().get("x-exception-message");
+    return exception != null ? reason + " (" + exception + ")" : reason;
+  }
+
+  private enum Counter {
+    REPLAYED,
+    DEDUPLICATED,
+    DISCARDED,
+    SKIPPED
+  }
+
+  private static final class Run {
+    final String mode;
+    final Filter filter;
+    final int rate;
+    final Instant startedAt = Instant.now();
+    final Map<Counter, Long> counts = new LinkedHashMap<>();
+    final Map<String, Long> reasons = new TreeMap<>();
+    long scanned;
+
+    Run(String mode, Filter filter, int rate) {
+      this.mode = mode;
+      this.filter = filter;
+      this.rate = rate;
+    }
+
+    synchronized void count(Counter counter, String reason) {
+      scanned++;
+      counts.merge(counter, 1L, Long::sum);
+      if (reason != null) reasons.merge(reason, 1L, Long::sum);
+    }
+
+    synchronized DeadLetterReplayStatus snapshot(String state, String error) {
+      boolean finished = !DeadLetterReplayStatus.RUNNING.equals(state);
+      return new DeadLetterReplayStatus(
+          state,
+          mode,
+          filter,
+          rate,
+          scanned,
+          counts.getOrDefault(Counter.REPLAYED, 0L),
+          counts.getOrDefault(Counter.DEDUPLICATED, 0L),
+          counts.getOrDefault(Counter.DISCARDED, 0L),
+          counts.getOrDefault(Counter.SKIPPED, 0L),
+          Map.copyOf(reasons),
+          startedAt,
+          finished ? Instant.now() : null,
+          error);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.treishvaam.financeapi.messaging;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What is sitting in the dead-letter queue, grouped by original routing key and event type.
+ *
+ * @param queued messages in the DLQ when it was inspected
+ * @param inspected how many of them were read (the summary covers the oldest {@code inspected})
+ */
+public record DeadLetterSummary(long queued, int inspected, List<Group> groups) {
+
+  /**
+   * @param reasons count per "queue: reason" taken from the broker's {@code x-death} header (plus
+   *     the listener's exception message when one was recorded)
+   * @param sampleEntityIds up to 20 affected entity ids
+   */
+  public record Group(
+      String routingKey,
+      String eventType,
+      long messages,
+      long distinctEntities,
+      List<Long> sampleEntityIds,
+      Map<String, Long> reasons) {}
+}
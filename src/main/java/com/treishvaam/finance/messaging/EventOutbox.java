@@ -0,0 +1,55 @@
+package com.treishvaam.financeapi.messaging;
+
+import com.treishvaam.financeapi.config.RabbitMQConfig;
+import java.time.Instant;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transactional replacement for calling {@link MessagePublisher} from inside a write. Events are
+ * stored with the business change and only reach RabbitMQ after commit, via {@link OutboxRelay}, so
+ * they can neither fire for a rolled-back change nor be lost while the broker is down.
+ */
+@Service
+public class EventOutbox {
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final OutboxRelay outboxRelay;
+
+  public EventOutbox(OutboxEventRepository outboxEventRepository, OutboxRelay outboxRelay) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.outboxRelay = outboxRelay;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueueSearchIndexEvent(Long postId, String action) {
+    enqueue(RabbitMQConfig.ROUTING_KEY_SEARCH, postId, action, "Search Index Update");
+  }
+
+  /** Marks the sitemap shard holding {@code postId} (and the news sitemap) as stale. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueueSitemapRegenerateEvent(Long postId) {
+    enqueue(RabbitMQConfig.ROUTING_KEY_SITEMAP, postId, "REGENERATE", "Sitemap Refresh");
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueueCategorySitemapEvent() {
+    enqueue(RabbitMQConfig.ROUTING_KEY_SITEMAP, 0L, "CATEGORIES", "Category Sitemap Refresh");
+  }
+
+  private void enqueue(String routingKey, Long entityId, String eventType, String payload) {
+    outboxEventRepository.upsert(routingKey, entityId, eventType, payload, Instant.now());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              outboxRelay.wakeUp();
+            }
+          });
+    }
+  }
+}
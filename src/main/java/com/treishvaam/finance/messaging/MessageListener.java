@@ -1,82 +1,218 @@
 package com.treishvaam.financeapi.messaging;
 
+import com.rabbitmq.client.Channel;
 import com.treishvaam.financeapi.config.RabbitMQConfig;
 import com.treishvaam.financeapi.model.BlogPost;
+import com.treishvaam.financeapi.model.PostStatus;
 import com.treishvaam.financeapi.repository.BlogPostRepository;
+import com.treishvaam.financeapi.search.FallbackSearchIndex;
 import com.treishvaam.financeapi.search.PostDocument;
-import com.treishvaam.financeapi.search.PostSearchRepository;
-import com.treishvaam.financeapi.service.SitemapService; // FIXED IMPORT
-import java.util.Optional;
+import com.treishvaam.financeapi.search.PostIndexer;
+import com.treishvaam.financeapi.service.SitemapInvalidationDebouncer;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
 
 @Component
 public class MessageListener {
 
   private static final Logger logger = LoggerFactory.getLogger(MessageListener.class);
 
-  @Autowired private PostSearchRepository postSearchRepository;
+  @Autowired private PostIndexer postIndexer;
+
+  @Autowired private FallbackSearchIndex fallbackSearchIndex;
 
   @Autowired private BlogPostRepository blogPostRepository;
 
-  // FIXED: Injected SitemapService (Dynamic) instead of GenerationService (File-based)
-  @Autowired private SitemapService sitemapService;
+  @Autowired private SitemapInvalidationDebouncer sitemapInvalidationDebouncer;
+
+  @Autowired private ConsumerMetrics consumerMetrics;
+
+  @Autowired private BackOff searchRetryBackOff;
 
   // WORKER 1: Handles Search Indexing (Elasticsearch)
-  @RabbitListener(queues = RabbitMQConfig.QUEUE_SEARCH_INDEX)
-  public void handleSearchIndexEvent(EventMessage message) {
-    logger.info(" [Async] Processing Search Event: {}", message);
-
-    if ("INDEX".equals(message.getEventType()) || "UPDATE".equals(message.getEventType())) {
-      Optional<BlogPost> postOpt = blogPostRepository.findById(message.getEntityId());
-      if (postOpt.isPresent()) {
-        BlogPost post = postOpt.get();
-        // Only index if published
-        if (post.getStatus() == com.treishvaam.financeapi.model.PostStatus.PUBLISHED) {
-          try {
-            String categorySlug =
-                post.getCategory() != null ? post.getCategory().getSlug() : "uncategorized";
-            PostDocument doc =
-                new PostDocument(
-                    post.getId().toString(),
-                    post.getTitle(),
-                    post.getCustomSnippet(),
-                    post.getSlug(),
-                    post.getStatus().name(),
-                    categorySlug,
-                    post.getUserFriendlySlug(),
-                    post.getUrlArticleId());
-            postSearchRepository.save(doc);
-            logger.info(" [Async] Successfully Indexed Post ID: {}", post.getId());
-          } catch (Exception e) {
-            logger.error("Failed to index post ID: " + post.getId(), e);
-          }
-        }
+  // Batched: one findAllById and one _bulk request per batch; the last event per post wins
+  @RabbitListener(
+      queues = RabbitMQConfig.QUEUE_SEARCH_INDEX,
+      containerFactory = RabbitMQConfig.SEARCH_BATCH_CONTAINER_FACTORY)
+  public void handleSearchIndexEvents(List<Message<EventMessage>> messages, Channel channel)
+      throws IOException {
+    Map<Long, String> latestAction = new LinkedHashMap<>();
+    Map<Long, List<Long>> tagsByPost = new HashMap<>();
+    List<Long> rejected = new ArrayList<>();
+
+    for (Message<EventMessage> message : messages) {
+      long tag = (Long) message.getHeaders().get(AmqpHeaders.DELIVERY_TAG);
+      EventMessage event = message.getPayload();
+      String type = event.getEventType();
+      boolean known = "INDEX".equals(type) || "UPDATE".equals(type) || "DELETE".equals(type);
+      if (event.getEntityId() == null || !known) {
+        logger.warn("Unprocessable search event, sending to DLQ: {}", event);
+        rejected.add(tag);
+        continue;
       }
-    } else if ("DELETE".equals(message.getEventType())) {
+      latestAction.put(event.getEntityId(), "DELETE".equals(type) ? "DELETE" : "INDEX");
+      tagsByPost.computeIfAbsent(event.getEntityId(), id -> new ArrayList<>()).add(tag);
+    }
+
+    Map<Long, String> failures = indexWithRetry(latestAction);
+
+    // Failed items are dead-lettered one by one, everything else is acked with a single call
+    for (Map.Entry<Long, String> failure : failures.entrySet()) {
+      logger.error("Failed to index post ID: {} ({})", failure.getKey(), failure.getValue());
+      rejected.addAll(tagsByPost.getOrDefault(failure.getKey(), List.of()));
+    }
+    for (long tag : rejected) {
+      channel.basicNack(tag, false, false);
+    }
+    long lastAcked = -1;
+    int acked = 0;
+    for (Map.Entry<Long, List<Long>> entry : tagsByPost.entrySet()) {
+      if (failures.containsKey(entry.getKey())) continue;
+      for (long tag : entry.getValue()) lastAcked = Math.max(lastAcked, tag);
+      acked += entry.getValue().size();
+    }
+    if (lastAcked >= 0) {
+      channel.basicAck(lastAcked, true);
+    }
+    consumerMetrics.acked(RabbitMQConfig.QUEUE_SEARCH_INDEX, acked);
+    consumerMetrics.deadLettered(RabbitMQConfig.QUEUE_SEARCH_INDEX, rejected.size());
+    logger.info(
+        " [Async] Search batch: {} message(s), {} post(s), {} failed",
+        messages.size(),
+        latestAction.size(),
+        failures.size());
+  }
+
+  /**
+   * Applies the batch, then retries only the posts that failed, backing off exponentially. The
+   * messages stay unacked meanwhile, so a crash redelivers them instead of losing them.
+   */
+  private Map<Long, String> indexWithRetry(Map<Long, String> latestAction) {
+    Map<Long, String> failures = tryApplyToIndex(latestAction);
+    BackOffExecution backOff = searchRetryBackOff.start();
+    while (!failures.isEmpty()) {
+      long waitMs = backOff.nextBackOff();
+      if (waitMs == BackOffExecution.STOP) break;
+      consumerMetrics.retried(RabbitMQConfig.QUEUE_SEARCH_INDEX, failures.size());
       try {
-        postSearchRepository.deleteById(message.getEntityId().toString());
-        logger.info(" [Async] Deleted Post ID: {} from Index", message.getEntityId());
-      } catch (Exception e) {
-        logger.error("Failed to delete post index ID: " + message.getEntityId(), e);
+        Thread.sleep(waitMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
       }
+      Map<Long, String> retry = new LinkedHashMap<>();
+      for (Long id : failures.keySet()) retry.put(id, latestAction.get(id));
+      failures = tryApplyToIndex(retry);
     }
+    return failures;
   }
 
-  // WORKER 2: Handles Sitemap Updates
-  @RabbitListener(queues = RabbitMQConfig.QUEUE_SITEMAP)
-  public void handleSitemapEvent(EventMessage message) {
-    logger.info(" [Async] Received Sitemap update event. Clearing cache...");
+  private Map<Long, String> tryApplyToIndex(Map<Long, String> latestAction) {
     try {
-      // ENTERPRISE FIX: Instead of generating files, we just clear the cache.
-      // The next request to /sitemap.xml will automatically regenerate fresh data.
-      sitemapService.clearCaches();
-      logger.info(" [Async] Sitemap cache cleared. Data is fresh.");
+      return applyToIndex(latestAction);
     } catch (Exception e) {
-      logger.error("Sitemap cache eviction failed", e);
+      logger.warn("Bulk indexing of {} post(s) failed: {}", latestAction.size(), e.toString());
+      Map<Long, String> failures = new HashMap<>();
+      for (Long id : latestAction.keySet()) failures.put(id, e.getMessage());
+      return failures;
+    }
+  }
+
+  private Map<Long, String> applyToIndex(Map<Long, String> latestAction) throws IOException {
+    Outcome outcome = resolve(latestAction);
+    Map<Long, String> failures = new HashMap<>();
+    for (String index : postIndexer.writeTargets()) {
+      failures.putAll(
+          postIndexer.bulkDocuments(
+              index, outcome.documents(), outcome.deleteIds(), outcome.versions()));
+    }
+    return failures;
+  }
+
+  /**
+   * What the index should hold after a batch, decided by the DB: published posts are written, all
+   * others removed. Each carries the version of the state read ({@link PostIndexer#version}); a
+   * post whose row is gone is versioned with the current time, newer than any state read before.
+   */
+  private record Outcome(
+      List<PostDocument> documents, List<Long> deleteIds, Map<Long, Long> versions) {}
+
+  private Outcome resolve(Map<Long, String> latestAction) {
+    List<Long> indexIds = new ArrayList<>();
+    List<Long> deleteIds = new ArrayList<>();
+    latestAction.forEach((id, action) -> ("DELETE".equals(action) ? deleteIds : indexIds).add(id));
+
+    List<PostDocument> documents = new ArrayList<>();
+    Map<Long, Long> versions = new HashMap<>();
+    Set<Long> found = new HashSet<>();
+    for (BlogPost post : blogPostRepository.findAllById(indexIds)) {
+      found.add(post.getId());
+      // Only published posts are searchable; anything else is removed from the index
+      if (post.getStatus() == PostStatus.PUBLISHED) {
+        documents.add(PostIndexer.toDocument(post));
+      } else {
+        deleteIds.add(post.getId());
+      }
+      if (post.getUpdatedAt() != null) {
+        versions.put(post.getId(), PostIndexer.version(post.getUpdatedAt()));
+      }
+    }
+    for (Long id : indexIds) {
+      if (!found.contains(id)) deleteIds.add(id);
+    }
+    long now = PostIndexer.version(Instant.now());
+    for (Long id : deleteIds) versions.putIfAbsent(id, now);
+    return new Outcome(documents, deleteIds, versions);
+  }
+
+  // WORKER 2: Handles Sitemap Updates
+  @RabbitListener(
+      queues = RabbitMQConfig.QUEUE_SITEMAP,
+      containerFactory = RabbitMQConfig.SITEMAP_CONTAINER_FACTORY)
+  public void handleSitemapEvent(EventMessage message) {
+    logger.debug(" [Async] Received Sitemap update event: {}", message);
+    // Debounced: bursts of events collapse into one background refresh of the touched shards
+    if ("CATEGORIES".equals(message.getEventType())) {
+      sitemapInvalidationDebouncer.categoriesChanged();
+    } else if (message.getEntityId() != null && message.getEntityId() > 0) {
+      sitemapInvalidationDebouncer.postChanged(message.getEntityId());
+    } else {
+      sitemapInvalidationDebouncer.everythingChanged();
+    }
+    consumerMetrics.acked(RabbitMQConfig.QUEUE_SITEMAP, 1);
+  }
+
+  // WORKER 3: Keeps this node's in-memory fallback index current. Each node has its own queue bound
+  // to the search routing key, so every replica applies every event, not only the one consuming
+  // search_index_queue
+  @RabbitListener(
+      queues = "#{searchFallbackQueue.name}",
+      containerFactory = RabbitMQConfig.SEARCH_FALLBACK_CONTAINER_FACTORY)
+  public void handleSearchFallbackEvents(List<EventMessage> events) {
+    Map<Long, String> latestAction = new LinkedHashMap<>();
+    for (EventMessage event : events) {
+      if (event.getEntityId() == null || event.getEventType() == null) continue;
+      latestAction.put(
+          event.getEntityId(), "DELETE".equals(event.getEventType()) ? "DELETE" : "INDEX");
     }
+    if (latestAction.isEmpty()) return;
+    Outcome outcome = resolve(latestAction);
+    fallbackSearchIndex.apply(outcome.documents(), outcome.deleteIds());
   }
 }
@@ -1,6 +1,9 @@
 package com.treishvaam.financeapi.messaging;
 
 import com.treishvaam.financeapi.config.RabbitMQConfig;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -21,4 +24,31 @@ public class MessagePublisher {
     template.convertAndSend(RabbitMQConfig.EXCHANGE, RabbitMQConfig.ROUTING_KEY_SITEMAP, message);
     System.out.println(" [x] Published Sitemap Regeneration Event");
   }
+
+  /**
+   * Sends a batch on one channel and blocks until the broker confirms all of it. Requires {@code
+   * spring.rabbitmq.publisher-confirm-type=simple}.
+   *
+   * @throws org.springframework.amqp.AmqpException if any message is nacked or the timeout expires
+   */
+  public void publishConfirmed(List<OutboxEvent> events, Duration timeout) {
+    template.invoke(
+        operations -> {
+          for (OutboxEvent event : events) {
+            // Timestamp = outbox commit time, consumers measure end-to-end lag from it
+            Date committedAt =
+                event.getCreatedAt() != null ? Date.from(event.getCreatedAt()) : null;
+            operations.convertAndSend(
+                RabbitMQConfig.EXCHANGE,
+                event.getRoutingKey(),
+                event.toMessage(),
+                message -> {
+                  message.getMessageProperties().setTimestamp(committedAt);
+                  return message;
+                });
+          }
+          operations.waitForConfirmsOrDie(timeout.toMillis());
+          return null;
+        });
+  }
 }
@@ -0,0 +1,149 @@
+package com.treishvaam.financeapi.messaging;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Pending broker message, written in the same transaction as the change it describes. There is at
+ * most one row per (routingKey, entityId): repeated events for the same post collapse into the
+ * latest event type until {@link OutboxRelay} ships it.
+ */
+@Entity
+@Table(name = "event_outbox")
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "routing_key", nullable = false, length = 100)
+  private String routingKey;
+
+  @Column(name = "entity_id", nullable = false)
+  private Long entityId;
+
+  @Column(name = "event_type", nullable = false, length = 50)
+  private String eventType;
+
+  @Column(name = "payload")
+  private String payload;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "last_error", length = 1024)
+  private String lastError;
+
+  // Bumped whenever a newer event coalesces into the row; the relay deletes only the version it
+  // sent
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  // Relay pass currently publishing the row; other passes skip it until claimedUntil
+  @Column(name = "claim_token", length = 36)
+  private String claimToken;
+
+  @Column(name = "claimed_until")
+  private Instant claimedUntil;
+
+  public EventMessage toMessage() {
+    return new EventMessage(eventType, entityId, payload);
+  }
+
+  // Getters and Setters
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getRoutingKey() {
+    return routingKey;
+  }
+
+  public void setRoutingKey(String routingKey) {
+    this.routingKey = routingKey;
+  }
+
+  public Long getEntityId() {
+    return entityId;
+  }
+
+  public void setEntityId(Long entityId) {
+    this.entityId = entityId;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  public void setEventType(String eventType) {
+    this.eventType = eventType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public void setPayload(String payload) {
+    this.payload = payload;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public String getClaimToken() {
+    return claimToken;
+  }
+
+  public void setClaimToken(String claimToken) {
+    this.claimToken = claimToken;
+  }
+
+  public Instant getClaimedUntil() {
+    return claimedUntil;
+  }
+
+  public void setClaimedUntil(Instant claimedUntil) {
+    this.claimedUntil = claimedUntil;
+  }
+}
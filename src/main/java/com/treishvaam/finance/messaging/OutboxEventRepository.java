@@ -0,0 +1,64 @@
+package com.treishvaam.financeapi.messaging;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  // Coalescing write: a second event for the same entity replaces the pending event type and
+  // commit time, and bumps the version so a relay pass already publishing the row leaves it in
+  // place
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO event_outbox (routing_key, entity_id, event_type, payload, created_at, attempts) "
+              + "VALUES (:routingKey, :entityId, :eventType, :payload, :now, 0) "
+              + "ON DUPLICATE KEY UPDATE event_type = VALUES(event_type), payload = VALUES(payload), "
+              + "created_at = VALUES(created_at), version = version + 1",
+      nativeQuery = true)
+  void upsert(
+      @Param("routingKey") String routingKey,
+      @Param("entityId") Long entityId,
+      @Param("eventType") String eventType,
+      @Param("payload") String payload,
+      @Param("now") Instant now);
+
+  // Row locks are held only while the batch is claimed, never across the broker round trip
+  @Query(
+      value =
+          "SELECT * FROM event_outbox WHERE claimed_until IS NULL OR claimed_until < :now "
+              + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<OutboxEvent> lockNextUnclaimed(@Param("now") Instant now, @Param("limit") int limit);
+
+  @Modifying
+  @Query(
+      "UPDATE OutboxEvent e SET e.claimToken = :token, e.claimedUntil = :until WHERE e.id IN :ids")
+  int claim(
+      @Param("ids") Collection<Long> ids,
+      @Param("token") String token,
+      @Param("until") Instant until);
+
+  @Modifying
+  @Query("DELETE FROM OutboxEvent e WHERE e.id = :id AND e.version = :version")
+  int deletePublished(@Param("id") Long id, @Param("version") long version);
+
+  @Modifying
+  @Query(
+      "UPDATE OutboxEvent e SET e.claimToken = NULL, e.claimedUntil = NULL "
+          + "WHERE e.claimToken = :token")
+  int release(@Param("token") String token);
+
+  @Modifying
+  @Query(
+      "UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, "
+          + "e.claimToken = NULL, e.claimedUntil = NULL WHERE e.claimToken = :token")
+  int releaseFailed(@Param("token") String token, @Param("error") String error);
+}
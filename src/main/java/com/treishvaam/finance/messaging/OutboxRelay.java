@@ -0,0 +1,147 @@
+package com.treishvaam.financeapi.messaging;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains {@code event_outbox} to RabbitMQ in batches. A pass claims a batch with a lease in a short
+ * transaction, publishes it outside any transaction, and then deletes the rows the broker
+ * confirmed, by id and version, so an event that coalesced into a row while it was in flight is
+ * kept for the next pass. On failure the rows are released and retried. Writers never wait on the
+ * broker: the rows are locked only while they are claimed. Committing writers wake the relay
+ * immediately, the poll interval is only a fallback.
+ */
+@Component
+public class OutboxRelay {
+
+  private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final MessagePublisher messagePublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final Semaphore wakeSignal = new Semaphore(0);
+  private volatile Thread worker;
+
+  @Value("${app.outbox.batch-size:200}")
+  private int batchSize;
+
+  @Value("${app.outbox.poll-interval-ms:5000}")
+  private long pollIntervalMs;
+
+  @Value("${app.outbox.confirm-timeout-ms:5000}")
+  private long confirmTimeoutMs;
+
+  // Another replica takes the rows over once this runs out, e.g. after a crash mid-publish
+  @Value("${app.outbox.claim-lease-ms:60000}")
+  private long claimLeaseMs;
+
+  public OutboxRelay(
+      OutboxEventRepository outboxEventRepository,
+      MessagePublisher messagePublisher,
+      PlatformTransactionManager transactionManager) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.messagePublisher = messagePublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    worker = Thread.ofPlatform().daemon().name("outbox-relay").start(this::runRelayLoop);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (worker != null) {
+      worker.interrupt();
+    }
+  }
+
+  /** Signals that new rows were committed. Cheap and safe to call from any thread. */
+  public void wakeUp() {
+    if (wakeSignal.availablePermits() == 0) {
+      wakeSignal.release();
+    }
+  }
+
+  /**
+   * Relays one batch.
+   *
+   * @return number of events confirmed by the broker, or -1 if the batch failed
+   */
+  public int drainOnce() {
+    String token = UUID.randomUUID().toString();
+    List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch(token));
+    if (batch == null || batch.isEmpty()) return 0;
+
+    try {
+      messagePublisher.publishConfirmed(batch, Duration.ofMillis(confirmTimeoutMs));
+    } catch (Exception e) {
+      logger.warn("Outbox relay could not publish {} event(s): {}", batch.size(), e.getMessage());
+      transactionTemplate.executeWithoutResult(
+          status -> outboxEventRepository.releaseFailed(token, truncate(e.getMessage())));
+      return -1;
+    }
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          for (OutboxEvent event : batch) {
+            outboxEventRepository.deletePublished(event.getId(), event.getVersion());
+          }
+          // Rows rewritten while in flight survive the delete; make them claimable right away
+          outboxEventRepository.release(token);
+        });
+    return batch.size();
+  }
+
+  private List<OutboxEvent> claimBatch(String token) {
+    Instant now = Instant.now();
+    List<OutboxEvent> batch = outboxEventRepository.lockNextUnclaimed(now, batchSize);
+    if (batch.isEmpty()) return batch;
+    outboxEventRepository.claim(
+        batch.stream().map(OutboxEvent::getId).toList(), token, now.plusMillis(claimLeaseMs));
+    return batch;
+  }
+
+  private void runRelayLoop() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        int relayed = drainOnce();
+        if (relayed < 0) {
+          // Broker trouble: back off instead of retrying on every wake-up
+          Thread.sleep(pollIntervalMs);
+          continue;
+        }
+        if (relayed == batchSize) continue; // More rows are waiting
+        wakeSignal.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+        wakeSignal.drainPermits();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        logger.error("Outbox relay pass failed", e);
+        try {
+          Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  private String truncate(String message) {
+    if (message == null) return null;
+    return message.length() > 1000 ? message.substring(0, 1000) : message;
+  }
+}
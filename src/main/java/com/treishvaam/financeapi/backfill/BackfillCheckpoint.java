@@ -0,0 +1,134 @@
+package com.treishvaam.financeapi.backfill;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/** Resumable progress of a backfill job. Updated in the same transaction as each chunk. */
+@Entity
+@Table(name = "backfill_checkpoints")
+public class BackfillCheckpoint {
+
+  public static final String STATUS_IDLE = "IDLE";
+  public static final String STATUS_RUNNING = "RUNNING";
+  public static final String STATUS_COMPLETED = "COMPLETED";
+  public static final String STATUS_FAILED = "FAILED";
+
+  @Id
+  @Column(name = "job_name", length = 100)
+  private String jobName;
+
+  @Column(name = "last_id", nullable = false)
+  private long lastId;
+
+  @Column(name = "scanned", nullable = false)
+  private long scanned;
+
+  @Column(name = "updated", nullable = false)
+  private long updated;
+
+  @Column(name = "status", nullable = false, length = 20)
+  private String status = STATUS_IDLE;
+
+  @Column(name = "started_at")
+  private Instant startedAt;
+
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+
+  @Column(name = "last_error", length = 1024)
+  private String lastError;
+
+  public BackfillCheckpoint() {}
+
+  public BackfillCheckpoint(String jobName) {
+    this.jobName = jobName;
+  }
+
+  /** Rewinds the checkpoint so the next run scans from the first id again. */
+  public void reset() {
+    this.lastId = 0;
+    this.scanned = 0;
+    this.updated = 0;
+    this.finishedAt = null;
+    this.lastError = null;
+  }
+
+  // Getters and Setters
+  public String getJobName() {
+    return jobName;
+  }
+
+  public void setJobName(String jobName) {
+    this.jobName = jobName;
+  }
+
+  public long getLastId() {
+    return lastId;
+  }
+
+  public void setLastId(long lastId) {
+    this.lastId = lastId;
+  }
+
+  public long getScanned() {
+    return scanned;
+  }
+
+  public void setScanned(long scanned) {
+    this.scanned = scanned;
+  }
+
+  public long getUpdated() {
+    return updated;
+  }
+
+  public void setUpdated(long updated) {
+    this.updated = updated;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(Instant startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public void setFinishedAt(Instant finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+}
@@ -0,0 +1,52 @@
+package com.treishvaam.financeapi.backfill;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/backfill")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class BackfillController {
+
+  private final BackfillRunner backfillRunner;
+
+  public BackfillController(BackfillRunner backfillRunner) {
+    this.backfillRunner = backfillRunner;
+  }
+
+  @GetMapping
+  public ResponseEntity<List<BackfillCheckpoint>> getAllStatuses() {
+    return ResponseEntity.ok(backfillRunner.status());
+  }
+
+  @GetMapping("/{jobName}")
+  public ResponseEntity<BackfillCheckpoint> getStatus(@PathVariable String jobName) {
+    if (!backfillRunner.hasJob(jobName)) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(backfillRunner.status(jobName));
+  }
+
+  @PostMapping("/{jobName}")
+  public ResponseEntity<?> start(
+      @PathVariable String jobName, @RequestParam(defaultValue = "false") boolean restart) {
+    if (!backfillRunner.hasJob(jobName)) {
+      return ResponseEntity.notFound().build();
+    }
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED)
+          .body(backfillRunner.start(jobName, restart));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    }
+  }
+}
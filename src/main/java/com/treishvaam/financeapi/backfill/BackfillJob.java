@@ -0,0 +1,29 @@
+package com.treishvaam.financeapi.backfill;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * A column-level data repair that {@link BackfillRunner} executes in keyset-ordered chunks.
+ *
+ * <p>{@link #selectSql()} receives {@code (afterId, limit)} and must return rows ordered by id, so
+ * a crashed or restarted job resumes from the last committed checkpoint. Only the columns that are
+ * needed are read and written, never whole entities.
+ */
+public interface BackfillJob<T> {
+
+  /** Stable name used for the checkpoint row and the admin endpoint. */
+  String name();
+
+  /** {@code SELECT ... WHERE id > ? ... ORDER BY id LIMIT ?} */
+  String selectSql();
+
+  RowMapper<T> rowMapper();
+
+  long idOf(T row);
+
+  /** Batched statement applied to every row that needs a change. */
+  String updateSql();
+
+  /** Bind values for {@link #updateSql()}, or {@code null} if the row needs no change. */
+  Object[] updateArgs(T row);
+}
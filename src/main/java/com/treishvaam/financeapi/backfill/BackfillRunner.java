@@ -0,0 +1,179 @@
+package com.treishvaam.financeapi.backfill;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Executes {@link BackfillJob}s chunk by chunk: ids are read in keyset order, changed columns are
+ * written with one JDBC batch per chunk, and the checkpoint is saved in the same transaction. A
+ * failed or interrupted job therefore resumes exactly after the last committed chunk.
+ */
+@Service
+public class BackfillRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(BackfillRunner.class);
+
+  private final Map<String, BackfillJob<?>> jobs;
+  private final JdbcTemplate jdbcTemplate;
+  private final BackfillCheckpointRepository checkpointRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+  @Value("${app.backfill.chunk-size:500}")
+  private int chunkSize;
+
+  public BackfillRunner(
+      List<BackfillJob<?>> jobs,
+      JdbcTemplate jdbcTemplate,
+      BackfillCheckpointRepository checkpointRepository,
+      PlatformTransactionManager transactionManager) {
+    this.jobs = jobs.stream().collect(Collectors.toMap(BackfillJob::name, Function.identity()));
+    this.jdbcTemplate = jdbcTemplate;
+    this.checkpointRepository = checkpointRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  public boolean hasJob(String jobName) {
+    return jobs.containsKey(jobName);
+  }
+
+  /**
+   * Starts a job in the background and returns its checkpoint immediately.
+   *
+   * @param restart ignore the saved checkpoint and rescan from the first id
+   * @throws IllegalArgumentException if the job is unknown
+   * @throws IllegalStateException if the job is already running on this node
+   */
+  public BackfillCheckpoint start(String jobName, boolean restart) {
+    BackfillJob<?> job = requireJob(jobName);
+    if (!running.add(jobName)) {
+      throw new IllegalStateException("Backfill job already running: " + jobName);
+    }
+    try {
+      BackfillCheckpoint checkpoint = begin(job, restart);
+      Thread.ofVirtual().name("backfill-" + jobName).start(() -> execute(job, checkpoint));
+      return checkpoint;
+    } catch (RuntimeException e) {
+      running.remove(jobName);
+      throw e;
+    }
+  }
+
+  /** Progress of every registered job, including jobs that have never run. */
+  public List<BackfillCheckpoint> status() {
+    List<BackfillCheckpoint> result = new ArrayList<>();
+    for (String jobName : jobs.keySet()) {
+      result.add(status(jobName));
+    }
+    return result;
+  }
+
+  public BackfillCheckpoint status(String jobName) {
+    requireJob(jobName);
+    return checkpointRepository.findById(jobName).orElseGet(() -> new BackfillCheckpoint(jobName));
+  }
+
+  private BackfillCheckpoint begin(BackfillJob<?> job, boolean restart) {
+    BackfillCheckpoint checkpoint =
+        checkpointRepository
+            .findById(job.name())
+            .orElseGet(() -> new BackfillCheckpoint(job.name()));
+    // A completed job is rescanned from the start; a failed/interrupted one resumes
+    if (restart || BackfillCheckpoint.STATUS_COMPLETED.equals(checkpoint.getStatus())) {
+      checkpoint.reset();
+    }
+    checkpoint.setStatus(BackfillCheckpoint.STATUS_RUNNING);
+    checkpoint.setStartedAt(Instant.now());
+    checkpoint.setUpdatedAt(Instant.now());
+    checkpoint.setLastError(null);
+    return checkpointRepository.save(checkpoint);
+  }
+
+  private <T> void execute(BackfillJob<T> job, BackfillCheckpoint initial) {
+    BackfillCheckpoint checkpoint = initial;
+    logger.info("Backfill '{}' started after id {}", job.name(), checkpoint.getLastId());
+    try {
+      while (true) {
+        final BackfillCheckpoint current = checkpoint;
+        ChunkResult result = transactionTemplate.execute(s -> processChunk(job, current));
+        if (result == null || result.scanned() == 0) break;
+        checkpoint = result.checkpoint();
+        if (result.scanned() < chunkSize) break;
+      }
+      checkpoint.setStatus(BackfillCheckpoint.STATUS_COMPLETED);
+      checkpoint.setFinishedAt(Instant.now());
+      checkpoint.setUpdatedAt(Instant.now());
+      checkpointRepository.save(checkpoint);
+      logger.info(
+          "Backfill '{}' completed. Scanned: {}, Updated: {}",
+          job.name(),
+          checkpoint.getScanned(),
+          checkpoint.getUpdated());
+    } catch (Exception e) {
+      logger.error(
+          "Backfill '{}' failed after id {}. It will resume from there on the next start.",
+          job.name(),
+          checkpoint.getLastId(),
+          e);
+      checkpoint.setStatus(BackfillCheckpoint.STATUS_FAILED);
+      checkpoint.setLastError(truncate(e.getMessage()));
+      checkpoint.setUpdatedAt(Instant.now());
+      try {
+        checkpointRepository.save(checkpoint);
+      } catch (Exception saveError) {
+        logger.error("Could not record failure for backfill '{}'", job.name(), saveError);
+      }
+    } finally {
+      running.remove(job.name());
+    }
+  }
+
+  private <T> ChunkResult processChunk(BackfillJob<T> job, BackfillCheckpoint checkpoint) {
+    List<T> rows =
+        jdbcTemplate.query(job.selectSql(), job.rowMapper(), checkpoint.getLastId(), chunkSize);
+    if (rows.isEmpty()) return new ChunkResult(checkpoint, 0);
+
+    List<Object[]> batch = new ArrayList<>(rows.size());
+    for (T row : rows) {
+      Object[] args = job.updateArgs(row);
+      if (args != null) batch.add(args);
+    }
+    if (!batch.isEmpty()) {
+      jdbcTemplate.batchUpdate(job.updateSql(), batch);
+    }
+
+    checkpoint.setLastId(job.idOf(rows.get(rows.size() - 1)));
+    checkpoint.setScanned(checkpoint.getScanned() + rows.size());
+    checkpoint.setUpdated(checkpoint.getUpdated() + batch.size());
+    checkpoint.setUpdatedAt(Instant.now());
+    return new ChunkResult(checkpointRepository.save(checkpoint), rows.size());
+  }
+
+  private BackfillJob<?> requireJob(String jobName) {
+    BackfillJob<?> job = jobs.get(jobName);
+    if (job == null) {
+      throw new IllegalArgumentException("Unknown backfill job: " + jobName);
+    }
+    return job;
+  }
+
+  private String truncate(String message) {
+    if (message == null) return null;
+    return message.length() > 1000 ? message.substring(0, 1000) : message;
+  }
+
+  private record ChunkResult(BackfillCheckpoint checkpoint, int scanned) {}
+}
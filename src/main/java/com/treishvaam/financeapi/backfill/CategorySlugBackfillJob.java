@@ -0,0 +1,51 @@
+package com.treishvaam.financeapi.backfill;
+
+import com.treishvaam.financeapi.service.BlogPostService;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/** Fills {@code categories.slug} from the category name where it is missing. */
+@Component
+public class CategorySlugBackfillJob implements BackfillJob<CategorySlugBackfillJob.Row> {
+
+  public static final String NAME = "category-slugs";
+
+  private final BlogPostService blogPostService;
+
+  public CategorySlugBackfillJob(BlogPostService blogPostService) {
+    this.blogPostService = blogPostService;
+  }
+
+  record Row(long id, String name) {}
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public String selectSql() {
+    return "SELECT id, name FROM categories WHERE id > ? "
+        + "AND (slug IS NULL OR slug = '') ORDER BY id LIMIT ?";
+  }
+
+  @Override
+  public RowMapper<Row> rowMapper() {
+    return (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("name"));
+  }
+
+  @Override
+  public long idOf(Row row) {
+    return row.id();
+  }
+
+  @Override
+  public String updateSql() {
+    return "UPDATE categories SET slug = ? WHERE id = ?";
+  }
+
+  @Override
+  public Object[] updateArgs(Row row) {
+    return new Object[] {blogPostService.generateUserFriendlySlug(row.name()), row.id()};
+  }
+}
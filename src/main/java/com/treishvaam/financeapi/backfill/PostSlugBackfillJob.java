@@ -0,0 +1,51 @@
+package com.treishvaam.financeapi.backfill;
+
+import com.treishvaam.financeapi.service.BlogPostService;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/** Fills {@code blog_posts.user_friendly_slug} from the title where it is missing. */
+@Component
+public class PostSlugBackfillJob implements BackfillJob<PostSlugBackfillJob.Row> {
+
+  public static final String NAME = "post-slugs";
+
+  private final BlogPostService blogPostService;
+
+  public PostSlugBackfillJob(BlogPostService blogPostService) {
+    this.blogPostService = blogPostService;
+  }
+
+  record Row(long id, String title) {}
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public String selectSql() {
+    return "SELECT id, title FROM blog_posts WHERE id > ? "
+        + "AND (user_friendly_slug IS NULL OR user_friendly_slug = '') ORDER BY id LIMIT ?";
+  }
+
+  @Override
+  public RowMapper<Row> rowMapper() {
+    return (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("title"));
+  }
+
+  @Override
+  public long idOf(Row row) {
+    return row.id();
+  }
+
+  @Override
+  public String updateSql() {
+    return "UPDATE blog_posts SET user_friendly_slug = ? WHERE id = ?";
+  }
+
+  @Override
+  public Object[] updateArgs(Row row) {
+    return new Object[] {blogPostService.generateUserFriendlySlug(row.title()), row.id()};
+  }
+}
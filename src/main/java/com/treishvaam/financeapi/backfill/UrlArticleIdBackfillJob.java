@@ -0,0 +1,52 @@
+package com.treishvaam.financeapi.backfill;
+
+import com.treishvaam.financeapi.service.BlogPostServiceImpl;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/** Assigns {@code blog_posts.url_article_id} to published and scheduled posts that lack one. */
+@Component
+public class UrlArticleIdBackfillJob implements BackfillJob<UrlArticleIdBackfillJob.Row> {
+
+  public static final String NAME = "post-url-article-ids";
+
+  record Row(long id, Instant createdAt) {}
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public String selectSql() {
+    return "SELECT id, created_at FROM blog_posts WHERE id > ? "
+        + "AND status IN ('PUBLISHED', 'SCHEDULED') AND url_article_id IS NULL "
+        + "ORDER BY id LIMIT ?";
+  }
+
+  @Override
+  public RowMapper<Row> rowMapper() {
+    return (rs, rowNum) -> {
+      Timestamp createdAt = rs.getTimestamp("created_at");
+      return new Row(rs.getLong("id"), createdAt != null ? createdAt.toInstant() : null);
+    };
+  }
+
+  @Override
+  public long idOf(Row row) {
+    return row.id();
+  }
+
+  @Override
+  public String updateSql() {
+    return "UPDATE blog_posts SET url_article_id = ? WHERE id = ?";
+  }
+
+  @Override
+  public Object[] updateArgs(Row row) {
+    String urlArticleId = BlogPostServiceImpl.generateUrlArticleId(row.createdAt(), row.id());
+    return urlArticleId != null ? new Object[] {urlArticleId, row.id()} : null;
+  }
+}
@@ -2,6 +2,13 @@ package com.treishvaam.financeapi.config;
 
 import io.minio.MinioClient;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -43,11 +50,40 @@ public class MinioConfig {
 
   // --- 2. NEW MINIO CLIENT (CRITICAL FIX for FileStorageService) ---
   @Bean
-  public MinioClient minioClient() {
+  public MinioClient minioClient(OkHttpClient minioHttpClient) {
     return MinioClient.builder()
         .endpoint(endpoint)
         .credentials(accessKey, secretKey)
         .region(region)
+        .httpClient(minioHttpClient)
+        .build();
+  }
+
+  /**
+   * The MinIO client runs every request through OkHttp's async dispatcher, which by default allows
+   * only 5 concurrent requests per host: parallel rendition uploads queued behind each other inside
+   * the client. Raise that together with the idle pool so the connections are reused.
+   */
+  @Bean
+  public OkHttpClient minioHttpClient(
+      @Value("${app.storage.minio.max-requests:64}") int maxRequests,
+      @Value("${app.storage.minio.max-idle-connections:32}") int maxIdleConnections,
+      @Value("${app.storage.minio.keep-alive-seconds:300}") long keepAliveSeconds,
+      @Value("${app.storage.minio.connect-timeout-ms:5000}") long connectTimeoutMs,
+      @Value("${app.storage.minio.read-timeout-ms:60000}") long readTimeoutMs,
+      @Value("${app.storage.minio.write-timeout-ms:60000}") long writeTimeoutMs,
+      @Value("${app.storage.minio.http2:false}") boolean http2) {
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequests);
+    return new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+        .readTimeout(Duration.ofMillis(readTimeoutMs))
+        .writeTimeout(Duration.ofMillis(writeTimeoutMs))
+        // HTTP/2 needs TLS (ALPN); one multiplexed connection can also throttle large puts
+        .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
         .build();
   }
 }
@@ -1,12 +1,21 @@
 package com.treishvaam.financeapi.config;
 
+import com.treishvaam.financeapi.messaging.ConsumerMetrics;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 @Configuration
 public class RabbitMQConfig {
@@ -23,6 +32,10 @@ public class RabbitMQConfig {
   public static final String ROUTING_KEY_SEARCH = "event.search";
   public static final String ROUTING_KEY_SITEMAP = "event.sitemap";
 
+  public static final String SEARCH_BATCH_CONTAINER_FACTORY = "searchBatchContainerFactory";
+  public static final String SITEMAP_CONTAINER_FACTORY = "sitemapContainerFactory";
+  public static final String SEARCH_FALLBACK_CONTAINER_FACTORY = "searchFallbackContainerFactory";
+
   // 1. Define Queues with DLQ Arguments
   @Bean
   public Queue searchIndexQueue() {
@@ -40,6 +53,13 @@ public class RabbitMQConfig {
         .build();
   }
 
+  // Per-node copy of the search events for the in-memory fallback index: server-named, exclusive to
+  // this connection and deleted with it, so every replica sees every event
+  @Bean
+  public AnonymousQueue searchFallbackQueue() {
+    return new AnonymousQueue(new Base64UrlNamingStrategy("search-fallback."));
+  }
+
   // 2. Define Dead Letter Queue
   @Bean
   public Queue deadLetterQueue() {
@@ -63,6 +83,11 @@ public class RabbitMQConfig {
     return BindingBuilder.bind(searchIndexQueue).to(exchange).with(ROUTING_KEY_SEARCH);
   }
 
+  @Bean
+  public Binding bindingSearchFallback(AnonymousQueue searchFallbackQueue, TopicExchange exchange) {
+    return BindingBuilder.bind(searchFallbackQueue).to(exchange).with(ROUTING_KEY_SEARCH);
+  }
+
   @Bean
   public Binding bindingSitemap(Queue sitemapQueue, TopicExchange exchange) {
     return BindingBuilder.bind(sitemapQueue).to(exchange).with(ROUTING_KEY_SITEMAP);
@@ -82,6 +107,112 @@ public class RabbitMQConfig {
     return new Jackson2JsonMessageConverter();
   }
 
+  // 7. Batch consumer for search indexing: up to batch-size messages (or whatever arrived within
+  // batch-wait-ms) are handed to the listener at once and acknowledged manually per delivery tag.
+  // Every batch re-reads post state from the DB and writes it with the post's updated_at as
+  // external
+  // version, so concurrent consumers cannot index stale data from an older event. Failed items are
+  // retried by the listener with searchRetryBackOff.
+  @Bean(name = SEARCH_BATCH_CONTAINER_FACTORY)
+  public SimpleRabbitListenerContainerFactory searchBatchContainerFactory(
+      SimpleRabbitListenerContainerFactoryConfigurer configurer,
+      ConnectionFactory connectionFactory,
+      ConsumerMetrics consumerMetrics,
+      @Value("${app.search.index-batch-size:200}") int batchSize,
+      @Value("${app.search.index-batch-wait-ms:500}") long batchWaitMs,
+      @Value("${app.messaging.search.concurrency:1}") int concurrency,
+      @Value("${app.messaging.search.max-concurrency:3}") int maxConcurrency) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    configurer.configure(factory, connectionFactory);
+    configureConsumers(factory, "search-consumer-", concurrency, maxConcurrency, batchSize * 2);
+    factory.setAfterReceivePostProcessors(consumerMetrics.receiveRecorder(QUEUE_SEARCH_INDEX));
+    factory.setBatchListener(true);
+    factory.setConsumerBatchEnabled(true);
+    factory.setBatchSize(batchSize);
+    factory.setReceiveTimeout(batchWaitMs);
+    factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+    return factory;
+  }
+
+  // One consumer per node for its fallback queue, so events are applied in order. A batch that
+  // fails is dropped rather than redelivered: the periodic rebuild repairs the index
+  @Bean(name = SEARCH_FALLBACK_CONTAINER_FACTORY)
+  public SimpleRabbitListenerContainerFactory searchFallbackContainerFactory(
+      SimpleRabbitListenerContainerFactoryConfigurer configurer,
+      ConnectionFactory connectionFactory,
+      @Value("${app.search.index-batch-size:200}") int batchSize,
+      @Value("${app.search.index-batch-wait-ms:500}") long batchWaitMs) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    configurer.configure(factory, connectionFactory);
+    configureConsumers(factory, "search-fallback-", 1, 1, batchSize * 2);
+    factory.setBatchListener(true);
+    factory.setConsumerBatchEnabled(true);
+    factory.setBatchSize(batchSize);
+    factory.setReceiveTimeout(batchWaitMs);
+    factory.setDefaultRequeueRejected(false);
+    return factory;
+  }
+
+  // 8. Sitemap events only feed the debouncer: one consumer is plenty. A listener exception is
+  // retried in-process with exponential backoff, then the message is rejected into the DLQ
+  @Bean(name = SITEMAP_CONTAINER_FACTORY)
+  public SimpleRabbitListenerContainerFactory sitemapContainerFactory(
+      SimpleRabbitListenerContainerFactoryConfigurer configurer,
+      ConnectionFactory connectionFactory,
+      ConsumerMetrics consumerMetrics,
+      @Value("${app.messaging.sitemap.concurrency:1}") int concurrency,
+      @Value("${app.messaging.sitemap.prefetch:50}") int prefetch,
+      @Value("${app.messaging.retry.max-attempts:4}") int maxAttempts,
+      @Value("${app.messaging.retry.initial-interval-ms:1000}") long initialIntervalMs,
+      @Value("${app.messaging.retry.multiplier:2.0}") double multiplier,
+      @Value("${app.messaging.retry.max-interval-ms:10000}") long maxIntervalMs) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    configurer.configure(factory, connectionFactory);
+    configureConsumers(factory, "sitemap-consumer-", concurrency, concurrency, prefetch);
+    factory.setAfterReceivePostProcessors(consumerMetrics.receiveRecorder(QUEUE_SITEMAP));
+    factory.setDefaultRequeueRejected(false);
+    MessageRecoverer deadLetter = new RejectAndDontRequeueRecoverer();
+    factory.setAdviceChain(
+        RetryInterceptorBuilder.stateless()
+            .maxAttempts(maxAttempts)
+            .backOffOptions(initialIntervalMs, multiplier, maxIntervalMs)
+            .recoverer(
+                (message, cause) -> {
+                  consumerMetrics.deadLettered(QUEUE_SITEMAP, 1);
+                  deadLetter.recover(message, cause);
+                })
+            .build());
+    return factory;
+  }
+
+  // Backoff between the search listener's retries of items that failed in a _bulk request
+  @Bean
+  public ExponentialBackOff searchRetryBackOff(
+      @Value("${app.messaging.retry.max-attempts:4}") int maxAttempts,
+      @Value("${app.messaging.retry.initial-interval-ms:1000}") long initialIntervalMs,
+      @Value("${app.messaging.retry.multiplier:2.0}") double multiplier,
+      @Value("${app.messaging.retry.max-interval-ms:10000}") long maxIntervalMs) {
+    ExponentialBackOff backOff = new ExponentialBackOff(initialIntervalMs, multiplier);
+    backOff.setMaxInterval(maxIntervalMs);
+    backOff.setMaxAttempts(maxAttempts - 1); // The first attempt is not a retry
+    return backOff;
+  }
+
+  // Consumers run on virtual threads: a blocked consumer (ES, DB) costs no platform thread
+  private static void configureConsumers(
+      SimpleRabbitListenerContainerFactory factory,
+      String threadNamePrefix,
+      int concurrency,
+      int maxConcurrency,
+      int prefetch) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+    executor.setVirtualThreads(true);
+    factory.setTaskExecutor(executor);
+    factory.setConcurrentConsumers(concurrency);
+    factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+    factory.setPrefetchCount(prefetch);
+  }
+
   @Bean
   public AmqpTemplate template(ConnectionFactory connectionFactory) {
     final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
@@ -87,6 +87,7 @@ public class SecurityConfig {
                         "/api/v1/market/**",
                         "/api/v1/news/**",
                         "/api/v1/search/**",
+                        "/api/v1/img/**",
                         "/api/v1/logo")
                     .permitAll()
 
@@ -12,14 +12,10 @@ public class WebConfig implements WebMvcConfigurer {
 
   @Override
   public void addResourceHandlers(ResourceHandlerRegistry registry) {
-    // 1. Serve Uploads (Match the API URL structure)
-    // Fixes: /api/v1/uploads/image.webp -> /app/uploads/image.webp
-    registry.addResourceHandler("/api/v1/uploads/**").addResourceLocations("file:/app/uploads/");
+    // Uploads (/api/v1/uploads/**, /uploads/**) are served by MediaController, from the upload
+    // directory or MinIO
 
-    // Fallback for legacy paths
-    registry.addResourceHandler("/uploads/**").addResourceLocations("file:/app/uploads/");
-
-    // 2. Serve Sitemaps
+    // Serve Sitemaps
     registry.addResourceHandler("/api/v1/sitemaps/**").addResourceLocations("file:/app/sitemaps/");
 
     registry.addResourceHandler("/sitemaps/**").addResourceLocations("file:/app/sitemaps/");
@@ -2,6 +2,8 @@ package com.treishvaam.financeapi.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treishvaam.financeapi.backfill.BackfillRunner;
+import com.treishvaam.financeapi.backfill.PostSlugBackfillJob;
 import com.treishvaam.financeapi.dto.BlogPostDto;
 import com.treishvaam.financeapi.dto.PostThumbnailDto;
 import com.treishvaam.financeapi.dto.ShareRequest;
@@ -40,6 +42,8 @@ public class BlogPostController {
 
   @Autowired private ObjectMapper objectMapper;
 
+  @Autowired private BackfillRunner backfillRunner;
+
   @GetMapping
   public ResponseEntity<Page<BlogPost>> getAllPosts(
       @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "9") int size) {
@@ -81,9 +85,19 @@ public class BlogPostController {
   @PostMapping("/admin/backfill-slugs")
   @PreAuthorize("hasAuthority('ROLE_ADMIN')")
   public ResponseEntity<Map<String, String>> backfillSlugs() {
-    int count = blogPostService.backfillSlugs();
-    return ResponseEntity.ok(
-        Map.of("message", "Successfully updated " + count + " posts with new slugs."));
+    // Runs in chunks in the background; large tenants used to time out here
+    try {
+      backfillRunner.start(PostSlugBackfillJob.NAME, false);
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    }
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(
+            Map.of(
+                "message",
+                "Post slug backfill started.",
+                "status",
+                "/api/v1/admin/backfill/" + PostSlugBackfillJob.NAME));
   }
 
   @GetMapping("/admin/drafts")
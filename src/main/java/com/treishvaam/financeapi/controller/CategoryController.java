@@ -1,11 +1,15 @@
 package com.treishvaam.financeapi.controller;
 
+import com.treishvaam.financeapi.backfill.BackfillRunner;
+import com.treishvaam.financeapi.backfill.CategorySlugBackfillJob;
+import com.treishvaam.financeapi.messaging.EventOutbox;
 import com.treishvaam.financeapi.model.Category;
 import com.treishvaam.financeapi.repository.CategoryRepository;
 import com.treishvaam.financeapi.service.BlogPostService;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +23,10 @@ public class CategoryController {
 
   @Autowired private BlogPostService blogPostService;
 
+  @Autowired private BackfillRunner backfillRunner;
+
+  @Autowired private EventOutbox eventOutbox;
+
   @GetMapping
   public ResponseEntity<List<Category>> getAllCategories() {
     return ResponseEntity.ok(categoryRepository.findAll());
@@ -26,6 +34,7 @@ public class CategoryController {
 
   @PostMapping
   @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+  @Transactional
   public ResponseEntity<Category> createCategory(@RequestBody Map<String, String> payload) {
     String categoryName = payload.get("name");
     if (categoryName == null || categoryName.trim().isEmpty()) {
@@ -35,23 +44,24 @@ public class CategoryController {
     newCategory.setName(categoryName);
     newCategory.setSlug(blogPostService.generateUserFriendlySlug(categoryName));
     Category savedCategory = categoryRepository.save(newCategory);
+    eventOutbox.enqueueCategorySitemapEvent();
     return ResponseEntity.ok(savedCategory);
   }
 
   @PostMapping("/admin/backfill-slugs")
   @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-  @Transactional
   public ResponseEntity<Map<String, String>> backfillCategorySlugs() {
-    List<Category> categories = categoryRepository.findAll();
-    int count = 0;
-    for (Category category : categories) {
-      if (category.getSlug() == null || category.getSlug().isEmpty()) {
-        category.setSlug(blogPostService.generateUserFriendlySlug(category.getName()));
-        categoryRepository.save(category);
-        count++;
-      }
+    try {
+      backfillRunner.start(CategorySlugBackfillJob.NAME, false);
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
     }
-    return ResponseEntity.ok(
-        Map.of("message", "Successfully updated " + count + " categories with new slugs."));
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(
+            Map.of(
+                "message",
+                "Category slug backfill started.",
+                "status",
+                "/api/v1/admin/backfill/" + CategorySlugBackfillJob.NAME));
   }
 }
@@ -1,20 +1,15 @@
 package com.treishvaam.financeapi.controller;
 
 import com.treishvaam.financeapi.service.FileStorageService;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import com.treishvaam.financeapi.service.ImageRenditionJobs;
+import com.treishvaam.financeapi.service.ImageService;
+import com.treishvaam.financeapi.service.ImageService.ImageMetadataDto;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,71 +18,87 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api/v1") // Versioned Base Path
 public class FileController {
 
-  private static final Logger logger = LoggerFactory.getLogger(FileController.class);
   private final FileStorageService fileStorageService;
-  private final Path fileStorageLocation;
+  private final ImageService imageService;
+  private final ImageRenditionJobs imageRenditionJobs;
+
+  @Value("${app.images.async-renditions:false}")
+  private boolean asyncRenditions;
 
   @Autowired
   public FileController(
       FileStorageService fileStorageService,
-      @Value("${storage.upload-dir:${java.io.tmpdir}/treishvaam-uploads-default}")
-          String uploadDir) {
+      ImageService imageService,
+      ImageRenditionJobs imageRenditionJobs) {
     this.fileStorageService = fileStorageService;
-    this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-  }
-
-  // Keep logo at V1 path as well
-  @GetMapping("/logo")
-  public ResponseEntity<Resource> serveLogo() {
-    try {
-      Path filePath = this.fileStorageLocation.resolve("logo.webp").normalize();
-      Resource resource = new UrlResource(filePath.toUri());
-
-      if (resource.exists() && resource.isReadable()) {
-        return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType("image/webp"))
-            .header(
-                HttpHeaders.CONTENT_DISPOSITION,
-                "inline; filename=\"" + resource.getFilename() + "\"")
-            .body(resource);
-      } else {
-        logger.error("Cached logo.webp not found or is not readable at path: {}", filePath);
-        return ResponseEntity.notFound().build();
-      }
-    } catch (MalformedURLException ex) {
-      logger.error("Error creating URL for logo.webp", ex);
-      return ResponseEntity.internalServerError().build();
-    }
+    this.imageService = imageService;
+    this.imageRenditionJobs = imageRenditionJobs;
   }
 
+  // Images get the standard renditions (in the background with async=true); anything else is
+  // stored as is
   @PostMapping("/files/upload")
   public ResponseEntity<Map<String, Object>> handleFileUpload(
-      @RequestParam("file") MultipartFile file) {
+      @RequestParam("file") MultipartFile file,
+      @RequestParam(value = "async", required = false) Boolean async) {
     if (file == null || file.isEmpty()) {
       return ResponseEntity.badRequest().body(Map.of("errorMessage", "File is empty"));
     }
+    if (file.getContentType() == null || !file.getContentType().startsWith("image/")) {
+      String url = fileStorageService.storeFile(file);
+      Map<String, Object> fileInfo = new HashMap<>();
+      fileInfo.put("url", url);
+      fileInfo.put("name", url.substring(url.lastIndexOf('/') + 1));
+      fileInfo.put("size", file.getSize());
+      return ResponseEntity.ok(Map.of("result", Collections.singletonList(fileInfo)));
+    }
 
-    String baseName = fileStorageService.storeFile(file);
-
-    // Update returned URLs to use the V1 path if serving via API
-    // NOTE: If serving via Nginx directly, these paths might differ, but for API consistency we use
-    // V1.
-    // Nginx location block for /api/v1/uploads/ will need to be checked if proxying is done there.
-    // Assuming Nginx proxies /api/v1/uploads -> MinIO.
+    boolean background = async != null ? async : asyncRenditions;
+    ImageMetadataDto metadata = imageService.saveImageAndGetMetadata(file, background);
+    String baseName = metadata.getBaseFilename();
 
+    // Master, 800w and 480w, in whichever format the client accepts
+    List<String> renditions = ImageService.renditionUrls(baseName);
     Map<String, String> imageUrls = new HashMap<>();
-    imageUrls.put("large", "/api/v1/uploads/" + baseName + ".webp");
-    imageUrls.put("medium", "/api/v1/uploads/" + baseName + "-medium.webp");
-    imageUrls.put("small", "/api/v1/uploads/" + baseName + "-small.webp");
+    imageUrls.put("large", renditions.get(0));
+    imageUrls.put("medium", renditions.get(2));
+    imageUrls.put("small", renditions.get(3));
 
     Map<String, Object> fileInfo = new HashMap<>();
     fileInfo.put("url", imageUrls.get("large"));
     fileInfo.put("urls", imageUrls);
     fileInfo.put("name", baseName);
     fileInfo.put("size", file.getSize());
+    fileInfo.put("width", metadata.getWidth());
+    fileInfo.put("height", metadata.getHeight());
+    fileInfo.put("blurHash", metadata.getBlurHash());
+    if (background) {
+      // Renditions are still being produced: poll /api/v1/files/jobs/{jobId}. A re-upload of known
+      // content reuses finished renditions and may have no stored original.
+      fileInfo.put("jobId", baseName);
+      boolean done =
+          imageRenditionJobs
+              .get(baseName)
+              .map(job -> ImageRenditionJobs.COMPLETED.equals(job.state()))
+              .orElse(false);
+      if (!done) {
+        fileInfo.put(
+            "originalUrl",
+            "/api/v1/uploads/"
+                + ImageService.originalName(baseName, metadata.getMimeType().substring(6)));
+      }
+    }
 
     Map<String, Object> response = Map.of("result", Collections.singletonList(fileInfo));
 
     return ResponseEntity.ok(response);
   }
+
+  @GetMapping("/files/jobs/{jobId}")
+  public ResponseEntity<ImageRenditionJobs.Status> getRenditionJob(@PathVariable String jobId) {
+    return imageRenditionJobs
+        .get(jobId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
 }
@@ -0,0 +1,97 @@
+package com.treishvaam.financeapi.controller;
+
+import com.treishvaam.financeapi.service.ImageProcessingRejectedException;
+import com.treishvaam.financeapi.service.ImageResizeService;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/v1/img")
+public class ImageProxyController {
+
+  private static final Logger logger = LoggerFactory.getLogger(ImageProxyController.class);
+
+  // The URL fully determines the bytes, so clients and CDNs may keep them forever
+  private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+  private final ImageResizeService imageResizeService;
+
+  public ImageProxyController(ImageResizeService imageResizeService) {
+    this.imageResizeService = imageResizeService;
+  }
+
+  @GetMapping("/{name}")
+  public CompletableFuture<ResponseEntity<?>> getImage(
+      @PathVariable String name,
+      @RequestParam(required = false) Integer w,
+      @RequestParam(required = false) Integer q,
+      @RequestParam(required = false) String fmt,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      WebRequest webRequest) {
+    ImageResizeService.Request request;
+    try {
+      request = imageResizeService.normalize(name, w, q, fmt, accept);
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.completedFuture(
+          ResponseEntity.badRequest().body(Map.of("message", e.getMessage())));
+    }
+    String etag = imageResizeService.etag(request);
+    // Without fmt the format follows Accept, so caches must key on it
+    Consumer<HttpHeaders> vary =
+        headers -> {
+          if (fmt == null) headers.setVary(List.of(HttpHeaders.ACCEPT));
+        };
+    if (webRequest.checkNotModified(etag)) {
+      return CompletableFuture.completedFuture(
+          ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+              .eTag(etag)
+              .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+              .headers(vary)
+              .build());
+    }
+    return imageResizeService
+        .get(request)
+        .<ResponseEntity<?>>thenApply(
+            rendition ->
+                ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(rendition.contentType()))
+                    .contentLength(rendition.bytes().length)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                    .headers(vary)
+                    .body(rendition.bytes()))
+        .exceptionally(error -> toErrorResponse(name, error));
+  }
+
+  private ResponseEntity<?> toErrorResponse(String name, Throwable error) {
+    Throwable cause =
+        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause instanceof NoSuchElementException) {
+      return ResponseEntity.notFound().build();
+    }
+    if (cause instanceof ImageProcessingRejectedException rejected) {
+      return ResponseEntity.status(rejected.getStatusCode())
+          .headers(rejected.getHeaders())
+          .body(Map.of("message", rejected.getReason()));
+    }
+    logger.error("Could not produce rendition of {}", name, cause);
+    return ResponseEntity.internalServerError().build();
+  }
+}
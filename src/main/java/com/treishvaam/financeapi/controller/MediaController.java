@@ -0,0 +1,139 @@
+package com.treishvaam.financeapi.controller;
+
+import com.treishvaam.financeapi.service.MediaStore;
+import com.treishvaam.financeapi.service.MediaStore.MediaObject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Uploaded media and the logo, from the local upload directory or MinIO. Supports conditional
+ * requests (ETag / Last-Modified, 304) and single byte ranges (206); a request for several ranges
+ * gets the whole entity. Large local files go out via the connector's sendfile where available.
+ */
+@RestController
+public class MediaController {
+
+  // Upload names are unique and never overwritten
+  private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+  private static final String LOGO_CACHE_CONTROL = "public, max-age=3600";
+
+  // Below this, copying is cheaper than handing the file to the connector (Tomcat's own default)
+  private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+  private final MediaStore mediaStore;
+
+  public MediaController(MediaStore mediaStore) {
+    this.mediaStore = mediaStore;
+  }
+
+  @GetMapping({"/api/v1/uploads/{name:.+}", "/uploads/{name:.+}"})
+  public void serveUpload(
+      @PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    serve(name, IMMUTABLE, request, response);
+  }
+
+  // Keep logo at V1 path as well
+  @GetMapping("/api/v1/logo")
+  public void serveLogo(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    serve("logo.webp", LOGO_CACHE_CONTROL, request, response);
+  }
+
+  private void serve(
+      String name, String cacheControl, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    Optional<MediaObject> resolved = mediaStore.resolve(name);
+    if (resolved.isEmpty()) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    MediaObject object = resolved.get();
+    long size = object.size();
+
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    if (new ServletWebRequest(request, response)
+        .checkNotModified(object.etag(), object.lastModified())) {
+      return;
+    }
+    response.setContentType(object.contentType());
+
+    long start = 0;
+    long length = size;
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange == null || ifRange.equals(object.etag())) {
+      try {
+        List<HttpRange> ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+        if (ranges.size() == 1) {
+          start = ranges.get(0).getRangeStart(size);
+          length = ranges.get(0).getRangeEnd(size) - start + 1;
+          response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+          response.setHeader(
+              HttpHeaders.CONTENT_RANGE,
+              "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+      } catch (IllegalArgumentException e) {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        return;
+      }
+    }
+    response.setContentLengthLong(length);
+    if ("HEAD".equals(request.getMethod()) || length == 0) {
+      return;
+    }
+
+    byte[] cached = mediaStore.cachedBytes(object);
+    if (cached != null) {
+      response.getOutputStream().write(cached, (int) start, (int) length);
+    } else if (object.file() != null) {
+      writeFile(object, start, length, request, response);
+    } else {
+      try (InputStream in = mediaStore.open(object, start, length);
+          OutputStream out = response.getOutputStream()) {
+        in.transferTo(out);
+      }
+    }
+  }
+
+  private static void writeFile(
+      MediaObject object,
+      long start,
+      long length,
+      HttpServletRequest request,
+      HttpServletResponse response)
+      throws IOException {
+    if (length >= SENDFILE_MIN_BYTES
+        && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+      // The connector writes the file straight from the page cache once the handler returns
+      request.setAttribute("org.apache.tomcat.sendfile.filename", object.file().toString());
+      request.setAttribute("org.apache.tomcat.sendfile.start", start);
+      request.setAttribute("org.apache.tomcat.sendfile.end", start + length);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(object.file(), StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = start;
+      long end = start + length;
+      while (position < end) {
+        position += channel.transferTo(position, end - position, out);
+      }
+    }
+  }
+}
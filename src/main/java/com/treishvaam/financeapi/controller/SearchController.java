@@ -1,10 +1,14 @@
 package com.treishvaam.financeapi.controller;
 
 import com.treishvaam.financeapi.dto.BlogPostSuggestionDto;
-import com.treishvaam.financeapi.search.PostDocument;
-import com.treishvaam.financeapi.search.PostSearchRepository;
+import com.treishvaam.financeapi.dto.SearchPageDto;
+import com.treishvaam.financeapi.search.PostSearchService;
+import com.treishvaam.financeapi.search.PostSuggestService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,29 +20,59 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/v1/search")
 public class SearchController {
 
-  @Autowired private PostSearchRepository postSearchRepository;
+  @Autowired private PostSuggestService postSuggestService;
 
-  @GetMapping
-  public ResponseEntity<List<BlogPostSuggestionDto>> searchPosts(@RequestParam String q) {
-    if (q == null || q.trim().isEmpty()) {
-      return ResponseEntity.ok(List.of());
-    }
+  @Autowired private PostSearchService postSearchService;
 
-    List<PostDocument> results = postSearchRepository.searchByTitle(q);
+  // Typeahead: cached prefixes are answered in-process; see PostSuggestService
+  @GetMapping
+  public CompletableFuture<ResponseEntity<List<BlogPostSuggestionDto>>> searchPosts(
+      @RequestParam String q,
+      @RequestParam(required = false) String sid,
+      HttpServletRequest request) {
+    return postSuggestService
+        .suggest(q, clientKey(sid, request))
+        .handle(
+            (suggestions, error) -> {
+              if (error != null) {
+                return ResponseEntity.ok(List.<BlogPostSuggestionDto>of());
+              }
+              if (suggestions == null) {
+                // A newer keystroke from the same client replaced this request
+                return ResponseEntity.ok()
+                    .header("X-Suggest-Superseded", "true")
+                    .body(List.<BlogPostSuggestionDto>of());
+              }
+              return ResponseEntity.ok(suggestions);
+            });
+  }
 
-    List<BlogPostSuggestionDto> suggestions =
-        results.stream()
-            .map(
-                doc ->
-                    new BlogPostSuggestionDto(
-                        Long.valueOf(doc.getId()),
-                        doc.getTitle(),
-                        doc.getSlug(),
-                        doc.getCategorySlug(),
-                        doc.getUserFriendlySlug(),
-                        doc.getUrlArticleId()))
-            .collect(Collectors.toList());
+  private String clientKey(String sid, HttpServletRequest request) {
+    String forwarded = request.getHeader("X-Forwarded-For");
+    String ip =
+        forwarded != null && !forwarded.isBlank()
+            ? forwarded.split(",")[0].trim()
+            : request.getRemoteAddr();
+    return sid != null && !sid.isBlank()
+        ? "sid:" + sid
+        : ip + "|" + request.getHeader("User-Agent");
+  }
 
-    return ResponseEntity.ok(suggestions);
+  // Full results page: fuzzy title/snippet/tags match, optional category, cursor paging
+  @GetMapping("/posts")
+  public ResponseEntity<?> searchPostsPage(
+      @RequestParam String q,
+      @RequestParam(required = false) String category,
+      @RequestParam(defaultValue = "" + PostSearchService.DEFAULT_PAGE_SIZE) int size,
+      @RequestParam(required = false) String cursor)
+      throws IOException {
+    if (q.trim().isEmpty()) {
+      return ResponseEntity.ok(new SearchPageDto(List.of(), 0, null));
+    }
+    try {
+      return ResponseEntity.ok(postSearchService.search(q.trim(), category, size, cursor));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
   }
 }
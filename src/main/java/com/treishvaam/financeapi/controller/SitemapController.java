@@ -1,47 +1,161 @@
 package com.treishvaam.financeapi.controller;
 
+import com.treishvaam.financeapi.service.SitemapFileStore;
 import com.treishvaam.financeapi.service.SitemapService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
-/** Enterprise SEO Controller Serves dynamic sitemaps with high-performance caching. */
+/**
+ * Enterprise SEO Controller. Serves the precomputed sitemap files written by {@link
+ * SitemapService}; a crawler request is a conditional check plus a file copy and never reaches the
+ * database.
+ */
 @RestController
 public class SitemapController {
 
-  @Autowired private SitemapService sitemapService;
+  @Autowired private SitemapFileStore sitemapFileStore;
 
   // 1. The Master Index
   @GetMapping(value = "/sitemap.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getSitemapIndex() {
-    return ResponseEntity.ok(sitemapService.generateSitemapIndex());
+  public void getSitemapIndex(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    serve(SitemapService.INDEX_FILE, request, response);
   }
 
   // 2. Google News (Last 48h)
   @GetMapping(value = "/sitemap-news.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getNewsSitemap() {
-    return ResponseEntity.ok(sitemapService.generateNewsSitemap());
+  public void getNewsSitemap(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    serve(SitemapService.NEWS_FILE, request, response);
   }
 
   // 3. Static Pages
   @GetMapping(value = "/sitemaps/static.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getStaticSitemap() {
-    return ResponseEntity.ok(sitemapService.generateStaticSitemap());
+  public void getStaticSitemap(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    serve(SitemapService.STATIC_FILE, request, response);
   }
 
   // 4. Categories
   @GetMapping(value = "/sitemaps/categories.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getCategoriesSitemap() {
-    return ResponseEntity.ok(sitemapService.generateCategoriesSitemap());
+  public void getCategoriesSitemap(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    serve(SitemapService.CATEGORIES_FILE, request, response);
   }
 
   // 5. The Archives (Sharded)
   // Matches /sitemaps/posts-0.xml, /sitemaps/posts-1.xml, etc.
   @GetMapping(value = "/sitemaps/posts-{page}.xml", produces = MediaType.APPLICATION_XML_VALUE)
-  public ResponseEntity<String> getPostsSitemap(@PathVariable int page) {
-    return ResponseEntity.ok(sitemapService.generatePostsSitemap(page));
+  public void getPostsSitemap(
+      @PathVariable int page, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (page < 0) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    serve(SitemapService.postsFile(page), request, response);
+  }
+
+  private void serve(String fileName, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    Path file = sitemapFileStore.resolve(fileName, gzip);
+    if (gzip && !Files.exists(file)) {
+      gzip = false;
+      file = sitemapFileStore.resolve(fileName, false);
+    }
+
+    // The open channel pins this version of the file even if a rewrite is renamed over it
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      // Not generated yet (node just started) or a shard beyond the index
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    try (channel) {
+      long size = channel.size();
+      long lastModified = Files.getLastModifiedTime(file).toMillis();
+      String etag =
+          "\""
+              + Long.toHexString(lastModified)
+              + "-"
+              + Long.toHexString(size)
+              + (gzip ? "-gz" : "")
+              + "\"";
+
+      response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=300");
+      if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+        return;
+      }
+
+      response.setContentType(MediaType.APPLICATION_XML_VALUE);
+      response.setCharacterEncoding("UTF-8");
+      if (gzip) {
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      }
+      response.setContentLengthLong(size);
+      if ("HEAD".equals(request.getMethod())) {
+        return;
+      }
+
+      // Copied through the response buffer rather than handed to the connector's sendfile: that
+      // reopens the file by name after we return, when a regeneration may have replaced it
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = 0;
+      while (position < size) {
+        position += channel.transferTo(position, size - position, out);
+      }
+    }
+  }
+
+  /**
+   * Whether {@code Accept-Encoding} admits gzip: listed with a non-zero q-value, or not listed
+   * while {@code *} is. {@code gzip;q=0} refuses it.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) return false;
+    Double gzip = null;
+    Double any = null;
+    for (String element : acceptEncoding.split(",")) {
+      String[] parts = element.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      double q = 1.0;
+      for (int i = 1; i < parts.length; i++) {
+        String param = parts[i].trim();
+        if (param.length() > 2 && param.regionMatches(true, 0, "q=", 0, 2)) {
+          try {
+            q = Double.parseDouble(param.substring(2).trim());
+          } catch (NumberFormatException e) {
+            q = 0;
+          }
+        }
+      }
+      if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+        gzip = q;
+      } else if ("*".equals(coding)) {
+        any = q;
+      }
+    }
+    if (gzip != null) return gzip > 0;
+    return any != null && any > 0;
   }
 }
@@ -0,0 +1,22 @@
+package com.treishvaam.financeapi.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchHitDto {
+  private Long id;
+  private String title;
+  private String slug;
+  private String categorySlug;
+  private String userFriendlySlug;
+  private String urlArticleId;
+
+  // Matched terms wrapped in <mark>; null/empty when the field did not match
+  private String titleHighlight;
+  private List<String> snippetHighlights;
+}
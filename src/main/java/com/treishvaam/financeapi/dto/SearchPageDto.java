@@ -0,0 +1,17 @@
+package com.treishvaam.financeapi.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPageDto {
+  private List<SearchHitDto> results;
+  private long total;
+
+  // Opaque search_after cursor for the next page; null on the last page
+  private String nextCursor;
+}
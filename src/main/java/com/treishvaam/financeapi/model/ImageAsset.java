@@ -0,0 +1,113 @@
+package com.treishvaam.financeapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * An image whose renditions are in storage, keyed by the SHA-256 of the uploaded bytes so that
+ * uploading the same file again reuses them.
+ */
+@Entity
+@Table(name = "image_assets")
+public class ImageAsset {
+
+  @Id
+  @Column(name = "content_hash", length = 64)
+  private String contentHash;
+
+  @Column(name = "base_filename", nullable = false, length = 100)
+  private String baseFilename;
+
+  @Column(name = "width")
+  private Integer width;
+
+  @Column(name = "height")
+  private Integer height;
+
+  @Column(name = "mime_type", length = 50)
+  private String mimeType;
+
+  @Column(name = "blur_hash", length = 100)
+  private String blurHash;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  public ImageAsset() {}
+
+  public ImageAsset(
+      String contentHash,
+      String baseFilename,
+      Integer width,
+      Integer height,
+      String mimeType,
+      String blurHash) {
+    this.contentHash = contentHash;
+    this.baseFilename = baseFilename;
+    this.width = width;
+    this.height = height;
+    this.mimeType = mimeType;
+    this.blurHash = blurHash;
+    this.createdAt = Instant.now();
+  }
+
+  // Getters and Setters
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  public String getBaseFilename() {
+    return baseFilename;
+  }
+
+  public void setBaseFilename(String baseFilename) {
+    this.baseFilename = baseFilename;
+  }
+
+  public Integer getWidth() {
+    return width;
+  }
+
+  public void setWidth(Integer width) {
+    this.width = width;
+  }
+
+  public Integer getHeight() {
+    return height;
+  }
+
+  public void setHeight(Integer height) {
+    this.height = height;
+  }
+
+  public String getMimeType() {
+    return mimeType;
+  }
+
+  public void setMimeType(String mimeType) {
+    this.mimeType = mimeType;
+  }
+
+  public String getBlurHash() {
+    return blurHash;
+  }
+
+  public void setBlurHash(String blurHash) {
+    this.blurHash = blurHash;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
@@ -0,0 +1,130 @@
+package com.treishvaam.financeapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A background rendition job of an async upload, keyed by the image's base filename. Kept in the
+ * database so every node can answer a status poll and a job survives the node that queued it.
+ */
+@Entity
+@Table(name = "image_rendition_jobs")
+public class ImageRenditionJob {
+
+  @Id
+  @Column(name = "job_id", length = 100)
+  private String jobId;
+
+  @Column(name = "state", nullable = false, length = 20)
+  private String state;
+
+  // Stored original the renditions are made from; null for a job that reused earlier renditions
+  @Column(name = "original_name", length = 150)
+  private String originalName;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "error", length = 1024)
+  private String error;
+
+  // Node running the job; another node takes it over once updatedAt is stale
+  @Column(name = "claimed_by", length = 100)
+  private String claimedBy;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+
+  public ImageRenditionJob() {}
+
+  public ImageRenditionJob(String jobId, String state, String originalName, String claimedBy) {
+    this.jobId = jobId;
+    this.state = state;
+    this.originalName = originalName;
+    this.claimedBy = claimedBy;
+    this.createdAt = Instant.now();
+    this.updatedAt = this.createdAt;
+  }
+
+  // Getters and Setters
+  public String getJobId() {
+    return jobId;
+  }
+
+  public void setJobId(String jobId) {
+    this.jobId = jobId;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public void setState(String state) {
+    this.state = state;
+  }
+
+  public String getOriginalName() {
+    return originalName;
+  }
+
+  public void setOriginalName(String originalName) {
+    this.originalName = originalName;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public String getClaimedBy() {
+    return claimedBy;
+  }
+
+  public void setClaimedBy(String claimedBy) {
+    this.claimedBy = claimedBy;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public void setFinishedAt(Instant finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+}
@@ -3,6 +3,7 @@ package com.treishvaam.financeapi.newshighlight;
 import com.treishvaam.financeapi.newshighlight.dto.NewsDataArticle;
 import com.treishvaam.financeapi.newshighlight.dto.NewsDataResponse;
 import com.treishvaam.financeapi.service.FileStorageService;
+import com.treishvaam.financeapi.service.StorageUploadDispatcher;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import net.coobird.thumbnailator.Thumbnails;
@@ -42,6 +44,7 @@ public class NewsHighlightService {
 
   private final NewsHighlightRepository repository;
   private final FileStorageService fileStorageService;
+  private final StorageUploadDispatcher uploadDispatcher;
   private final RestTemplate restTemplate;
 
   @Value("${newsdata.api.key}")
@@ -69,9 +72,12 @@ public class NewsHighlightService {
           "business standard");
 
   public NewsHighlightService(
-      NewsHighlightRepository repository, FileStorageService fileStorageService) {
+      NewsHighlightRepository repository,
+      FileStorageService fileStorageService,
+      StorageUploadDispatcher uploadDispatcher) {
     this.repository = repository;
     this.fileStorageService = fileStorageService;
+    this.uploadDispatcher = uploadDispatcher;
     this.restTemplate = new RestTemplate();
   }
 
@@ -100,6 +106,14 @@ public class NewsHighlightService {
     List<NewsHighlight> recentNews =
         repository.findByIsArchivedFalseOrderByPublishedAtDesc(limit).getContent();
 
+    // One batched lookup (mostly cache hits) instead of a MinIO round trip per article
+    Map<String, Long> sizes =
+        fileStorageService.getFileSizes(
+            recentNews.stream()
+                .map(NewsHighlight::getImageUrl)
+                .filter(url -> url != null && isLocalUpload(url))
+                .toList());
+
     int fixedCount = 0;
     for (NewsHighlight news : recentNews) {
       boolean needsRepair = false;
@@ -110,8 +124,8 @@ public class NewsHighlightService {
         needsRepair = true;
       }
       // 2. Check for local paths that might be corrupt (0 bytes or missing)
-      else if (currentUrl.startsWith("/api/uploads/") || currentUrl.startsWith("/uploads/")) {
-        long size = fileStorageService.getFileSize(currentUrl);
+      else if (isLocalUpload(currentUrl)) {
+        long size = sizes.getOrDefault(currentUrl, -1L);
         if (size <= 0) {
           needsRepair = true;
         }
@@ -125,6 +139,10 @@ public class NewsHighlightService {
     if (fixedCount > 0) logger.info("✅ Healer processed {} items.", fixedCount);
   }
 
+  private static boolean isLocalUpload(String url) {
+    return url.startsWith("/api/uploads/") || url.startsWith("/uploads/");
+  }
+
   private void repairSingleNewsItem(NewsHighlight news) {
     try {
       String scrapedImageUrl = scrapeImageFromUrl(news.getLink());
@@ -315,8 +333,14 @@ public class NewsHighlightService {
         if (finalBytes.length == 0) return null;
 
         String filename = "news-" + UUID.randomUUID() + "." + extension;
-        return fileStorageService.storeFile(
-            new ByteArrayInputStream(finalBytes), filename, contentType);
+        String type = contentType;
+        return uploadDispatcher
+            .submit(
+                filename,
+                () ->
+                    fileStorageService.storeFile(
+                        new ByteArrayInputStream(finalBytes), finalBytes.length, filename, type))
+            .join();
       }
     } catch (Exception e) {
       return null;
@@ -8,6 +8,9 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
@@ -45,4 +48,40 @@ public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
   // --- PHASE 2 ENTERPRISE ADDITION ---
   // High-performance query for "News Sitemap" (Last 48 hours only)
   List<BlogPost> findByStatusAndCreatedAtAfterOrderByCreatedAtDesc(PostStatus status, Instant date);
+
+  // --- SCHEDULED PUBLISHING (Cluster-safe) ---
+  // Lightweight view used to fill the in-memory delay queue without loading LOBs
+  @Query(
+      "SELECT p.id AS id, p.scheduledTime AS scheduledTime FROM BlogPost p "
+          + "WHERE p.status = :status AND p.scheduledTime < :until")
+  List<ScheduledPostView> findScheduleByStatusAndScheduledTimeBefore(
+      @Param("status") PostStatus status, @Param("until") Instant until);
+
+  // Row-level lease: replicas skip rows another node has already claimed
+  @Query(
+      value =
+          "SELECT id FROM blog_posts WHERE status = 'SCHEDULED' AND scheduled_time <= :now "
+              + "ORDER BY scheduled_time LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<Long> claimDueScheduledPostIds(@Param("now") Instant now, @Param("limit") int limit);
+
+  @Modifying
+  @Query(
+      "UPDATE BlogPost p SET p.status = :status, p.scheduledTime = NULL, p.updatedAt = :now "
+          + "WHERE p.id IN :ids")
+  int markPublished(
+      @Param("ids") List<Long> ids, @Param("status") PostStatus status, @Param("now") Instant now);
+
+  @Query(
+      "SELECT p.id AS id, p.createdAt AS createdAt FROM BlogPost p "
+          + "WHERE p.id IN :ids AND p.urlArticleId IS NULL")
+  List<UrlArticleIdView> findMissingUrlArticleIds(@Param("ids") List<Long> ids);
+
+  @Modifying
+  @Query("UPDATE BlogPost p SET p.urlArticleId = :urlArticleId WHERE p.id = :id")
+  int updateUrlArticleId(@Param("id") Long id, @Param("urlArticleId") String urlArticleId);
+
+  // --- SITEMAP SHARDS (Stable id ranges) ---
+  @Query("SELECT MAX(p.id) FROM BlogPost p WHERE p.status = :status")
+  Long findMaxIdByStatus(@Param("status") PostStatus status);
 }
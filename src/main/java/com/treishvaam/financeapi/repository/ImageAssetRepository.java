@@ -0,0 +1,8 @@
+package com.treishvaam.financeapi.repository;
+
+import com.treishvaam.financeapi.model.ImageAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImageAssetRepository extends JpaRepository<ImageAsset, String> {}
@@ -0,0 +1,54 @@
+package com.treishvaam.financeapi.repository;
+
+import com.treishvaam.financeapi.model.ImageRenditionJob;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ImageRenditionJobRepository extends JpaRepository<ImageRenditionJob, String> {
+
+  List<ImageRenditionJob> findByStateIn(Collection<String> states);
+
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE ImageRenditionJob j SET j.attempts = j.attempts + 1, j.updatedAt = :now "
+          + "WHERE j.jobId = :jobId")
+  int incrementAttempts(@Param("jobId") String jobId, @Param("now") Instant now);
+
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE ImageRenditionJob j SET j.state = :state, j.error = :error, j.updatedAt = :now, "
+          + "j.finishedAt = :finishedAt WHERE j.jobId = :jobId")
+  int updateState(
+      @Param("jobId") String jobId,
+      @Param("state") String state,
+      @Param("error") String error,
+      @Param("now") Instant now,
+      @Param("finishedAt") Instant finishedAt);
+
+  // Compare-and-set on updatedAt: of several nodes that saw the same stale job, one wins
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE ImageRenditionJob j SET j.claimedBy = :node, j.updatedAt = :now "
+          + "WHERE j.jobId = :jobId AND j.updatedAt = :seenUpdatedAt AND j.finishedAt IS NULL")
+  int claim(
+      @Param("jobId") String jobId,
+      @Param("node") String node,
+      @Param("seenUpdatedAt") Instant seenUpdatedAt,
+      @Param("now") Instant now);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ImageRenditionJob j WHERE j.finishedAt < :cutoff")
+  int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+}
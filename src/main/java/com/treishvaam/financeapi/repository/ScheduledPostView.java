@@ -0,0 +1,10 @@
+package com.treishvaam.financeapi.repository;
+
+import java.time.Instant;
+
+/** Projection of a scheduled post: just enough to place it on the publish timer. */
+public interface ScheduledPostView {
+  Long getId();
+
+  Instant getScheduledTime();
+}
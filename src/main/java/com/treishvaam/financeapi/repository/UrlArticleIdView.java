@@ -0,0 +1,10 @@
+package com.treishvaam.financeapi.repository;
+
+import java.time.Instant;
+
+/** Projection used to derive the public URL article id without loading the whole post. */
+public interface UrlArticleIdView {
+  Long getId();
+
+  Instant getCreatedAt();
+}
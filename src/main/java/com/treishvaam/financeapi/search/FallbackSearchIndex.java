@@ -0,0 +1,379 @@
+package com.treishvaam.financeapi.search;
+
+import com.treishvaam.financeapi.dto.BlogPostSuggestionDto;
+import com.treishvaam.financeapi.dto.SearchHitDto;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process inverted index over published post titles, snippets, tags and keywords, used while the
+ * Elasticsearch circuit is open.
+ *
+ * <p>Postings are sorted post ids, delta + varint encoded into one {@code byte[]} per term. The
+ * compressed base segment is immutable; posts changed since it was built live in a small delta
+ * segment and shadow their base postings until the next compaction folds them in. Term keys carry
+ * the field: {@code t:} title stem, {@code s:} snippet/tags/keywords stem, {@code p:} raw title
+ * word (for prefix matching of the word being typed).
+ */
+@Component
+public class FallbackSearchIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(FallbackSearchIndex.class);
+
+  private static final int LOAD_CHUNK_SIZE = 1000;
+  private static final int MAX_PREFIX_EXPANSIONS = 64;
+  private static final int TITLE_WEIGHT = 3;
+
+  record Doc(
+      long id,
+      String title,
+      String slug,
+      String categorySlug,
+      String userFriendlySlug,
+      String urlArticleId,
+      Set<String> keys) {}
+
+  private final PublishedPostLoader publishedPostLoader;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // All guarded by lock
+  private Map<Long, Doc> docs = new HashMap<>();
+  private NavigableMap<String, byte[]> base = new TreeMap<>();
+  private final NavigableMap<String, Set<Long>> delta = new TreeMap<>();
+  private final Set<Long> shadowed = new HashSet<>();
+  private Map<Long, Optional<Doc>> changesDuringRebuild;
+  private volatile boolean ready;
+
+  @Value("${app.search.fallback.compact-threshold:1000}")
+  private int compactThreshold;
+
+  public FallbackSearchIndex(PublishedPostLoader publishedPostLoader) {
+    this.publishedPostLoader = publishedPostLoader;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildOnStartup() {
+    Thread.ofVirtual().name("search-fallback-build").start(this::rebuild);
+  }
+
+  /**
+   * Reloads everything from the DB. Every node applies every search event from its own queue, so
+   * this only repairs a copy that missed events, e.g. while the node was disconnected.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.search.fallback.rebuild-interval-ms:900000}",
+      initialDelayString = "${app.search.fallback.rebuild-interval-ms:900000}")
+  public void rebuild() {
+    long started = System.currentTimeMillis();
+    lock.writeLock().lock();
+    try {
+      changesDuringRebuild = new HashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    try {
+      Map<Long, Doc> loaded = new HashMap<>();
+      long lastId = 0;
+      while (true) {
+        List<PostDocument> chunk = publishedPostLoader.loadChunk(lastId, LOAD_CHUNK_SIZE);
+        for (PostDocument doc : chunk) {
+          Doc entry = toDoc(doc);
+          loaded.put(entry.id(), entry);
+        }
+        if (chunk.size() < LOAD_CHUNK_SIZE) break;
+        lastId = Long.parseLong(chunk.get(chunk.size() - 1).getId());
+      }
+
+      lock.writeLock().lock();
+      try {
+        // Events applied while loading are newer than what was read
+        changesDuringRebuild.forEach(
+            (id, change) -> {
+              if (change.isPresent()) loaded.put(id, change.get());
+              else loaded.remove(id);
+            });
+        changesDuringRebuild = null;
+        docs = loaded;
+        compact();
+        ready = true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      logger.info(
+          "Search fallback index built: {} post(s), {} term(s) in {}ms",
+          loaded.size(),
+          base.size(),
+          System.currentTimeMillis() - started);
+    } catch (Exception e) {
+      lock.writeLock().lock();
+      try {
+        changesDuringRebuild = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      logger.error("Search fallback index build failed", e);
+    }
+  }
+
+  /** Applies the outcome of a batch of search events. */
+  public void apply(Collection<PostDocument> published, Collection<Long> deletedIds) {
+    lock.writeLock().lock();
+    try {
+      for (PostDocument doc : published) {
+        Doc entry = toDoc(doc);
+        remove(entry.id());
+        docs.put(entry.id(), entry);
+        for (String key : entry.keys()) {
+          delta.computeIfAbsent(key, k -> new TreeSet<>()).add(entry.id());
+        }
+        if (changesDuringRebuild != null) changesDuringRebuild.put(entry.id(), Optional.of(entry));
+      }
+      for (Long id : deletedIds) {
+        remove(id);
+        if (changesDuringRebuild != null) changesDuringRebuild.put(id, Optional.empty());
+      }
+      if (shadowed.size() > compactThreshold) {
+        compact();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public List<SearchHitDto> search(String text, String categorySlug, int offset, int limit) {
+    List<Doc> ranked = rank(text, categorySlug, false);
+    List<SearchHitDto> results = new ArrayList<>();
+    for (int i = offset; i < ranked.size() && results.size() < limit; i++) {
+      Doc doc = ranked.get(i);
+      results.add(
+          new SearchHitDto(
+              doc.id(),
+              doc.title(),
+              doc.slug(),
+              doc.categorySlug(),
+              doc.userFriendlySlug(),
+              doc.urlArticleId(),
+              null,
+              List.of()));
+    }
+    return results;
+  }
+
+  public int count(String text, String categorySlug) {
+    return rank(text, categorySlug, false).size();
+  }
+
+  /** Typeahead: the last word is matched as a prefix of a title word. */
+  public List<BlogPostSuggestionDto> suggest(String text, int limit) {
+    List<BlogPostSuggestionDto> results = new ArrayList<>();
+    for (Doc doc : rank(text, null, true)) {
+      if (results.size() >= limit) break;
+      results.add(
+          new BlogPostSuggestionDto(
+              doc.id(),
+              doc.title(),
+              doc.slug(),
+              doc.categorySlug(),
+              doc.userFriendlySlug(),
+              doc.urlArticleId()));
+    }
+    return results;
+  }
+
+  private List<Doc> rank(String text, String categorySlug, boolean prefixLast) {
+    List<String> words = TextAnalyzer.words(text);
+    String partial = prefixLast && !words.isEmpty() ? words.remove(words.size() - 1) : null;
+    Set<String> terms = new LinkedHashSet<>(TextAnalyzer.terms(String.join(" ", words)));
+
+    Map<Long, int[]> scores = new HashMap<>(); // id -> {matched terms, weight}
+    lock.readLock().lock();
+    try {
+      for (String term : terms) {
+        Set<Long> seen = new HashSet<>();
+        for (long id : postings("t:" + term)) {
+          score(scores, id, seen.add(id), TITLE_WEIGHT);
+        }
+        for (long id : postings("s:" + term)) {
+          score(scores, id, seen.add(id), 1);
+        }
+      }
+      if (partial != null) {
+        Set<Long> seen = new HashSet<>();
+        for (String key : expand("p:" + partial)) {
+          for (long id : postings(key)) {
+            if (seen.add(id)) score(scores, id, true, TITLE_WEIGHT);
+          }
+        }
+      }
+
+      int required = terms.size() + (partial != null ? 1 : 0);
+      List<Doc> ranked = new ArrayList<>();
+      Map<Doc, int[]> byDoc = new HashMap<>();
+      for (Map.Entry<Long, int[]> entry : scores.entrySet()) {
+        Doc doc = docs.get(entry.getKey());
+        if (doc == null) continue;
+        if (categorySlug != null && !categorySlug.isBlank()) {
+          if (!categorySlug.equals(doc.categorySlug())) continue;
+        }
+        // Typeahead needs every word; full search ranks partial matches lower
+        if (prefixLast && entry.getValue()[0] < required) continue;
+        ranked.add(doc);
+        byDoc.put(doc, entry.getValue());
+      }
+      ranked.sort(
+          Comparator.<Doc>comparingInt(d -> -byDoc.get(d)[0])
+              .thenComparingInt(d -> -byDoc.get(d)[1])
+              .thenComparingLong(d -> -d.id()));
+      return ranked;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static void score(Map<Long, int[]> scores, long id, boolean newTerm, int weight) {
+    int[] score = scores.computeIfAbsent(id, k -> new int[2]);
+    if (newTerm) score[0]++;
+    score[1] += weight;
+  }
+
+  // --- Postings (caller holds a lock) ---
+
+  private List<Long> postings(String key) {
+    List<Long> ids = new ArrayList<>();
+    byte[] encoded = base.get(key);
+    if (encoded != null) {
+      for (long id : decode(encoded)) {
+        if (!shadowed.contains(id)) ids.add(id);
+      }
+    }
+    Set<Long> recent = delta.get(key);
+    if (recent != null) ids.addAll(recent);
+    return ids;
+  }
+
+  private Set<String> expand(String keyPrefix) {
+    Set<String> keys = new TreeSet<>();
+    String end = keyPrefix + Character.MAX_VALUE;
+    for (String key : base.subMap(keyPrefix, true, end, false).keySet()) {
+      if (keys.size() >= MAX_PREFIX_EXPANSIONS) break;
+      keys.add(key);
+    }
+    for (String key : delta.subMap(keyPrefix, true, end, false).keySet()) {
+      if (keys.size() >= MAX_PREFIX_EXPANSIONS * 2) break;
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  private void remove(long id) {
+    Doc previous = docs.remove(id);
+    shadowed.add(id);
+    if (previous == null) return;
+    for (String key : previous.keys()) {
+      Set<Long> ids = delta.get(key);
+      if (ids != null) {
+        ids.remove(id);
+        if (ids.isEmpty()) delta.remove(key);
+      }
+    }
+  }
+
+  /** Rebuilds the compressed base segment from the live docs and clears the delta. */
+  private void compact() {
+    Map<String, TreeSet<Long>> postings = new HashMap<>();
+    for (Doc doc : docs.values()) {
+      for (String key : doc.keys()) {
+        postings.computeIfAbsent(key, k -> new TreeSet<>()).add(doc.id());
+      }
+    }
+    NavigableMap<String, byte[]> compacted = new TreeMap<>();
+    postings.forEach((key, ids) -> compacted.put(key, encode(ids)));
+    base = compacted;
+    delta.clear();
+    shadowed.clear();
+  }
+
+  private static Doc toDoc(PostDocument doc) {
+    Set<String> keys = new HashSet<>();
+    for (String term : TextAnalyzer.terms(doc.getTitle())) keys.add("t:" + term);
+    for (String word : TextAnalyzer.words(doc.getTitle())) keys.add("p:" + word);
+    for (String term : TextAnalyzer.terms(doc.getSnippet())) keys.add("s:" + term);
+    for (String term : TextAnalyzer.terms(doc.getKeywords())) keys.add("s:" + term);
+    if (doc.getTags() != null) {
+      for (String tag : doc.getTags()) {
+        for (String term : TextAnalyzer.terms(tag)) keys.add("s:" + term);
+      }
+    }
+    return new Doc(
+        Long.parseLong(doc.getId()),
+        doc.getTitle(),
+        doc.getSlug(),
+        doc.getCategorySlug(),
+        doc.getUserFriendlySlug(),
+        doc.getUrlArticleId(),
+        Set.copyOf(keys));
+  }
+
+  // --- Delta + varint codec: ascending ids cost 1-2 bytes each instead of 8 ---
+
+  static byte[] encode(Collection<Long> sortedIds) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(sortedIds.size() * 2);
+    long previous = 0;
+    for (long id : sortedIds) {
+      long gap = id - previous;
+      previous = id;
+      while ((gap & ~0x7FL) != 0) {
+        out.write((int) ((gap & 0x7F) | 0x80));
+        gap >>>= 7;
+      }
+      out.write((int) gap);
+    }
+    return out.toByteArray();
+  }
+
+  static long[] decode(byte[] encoded) {
+    long[] ids = new long[encoded.length];
+    int count = 0;
+    long previous = 0;
+    long gap = 0;
+    int shift = 0;
+    for (byte b : encoded) {
+      gap |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) != 0) {
+        shift += 7;
+        continue;
+      }
+      previous += gap;
+      ids[count++] = previous;
+      gap = 0;
+      shift = 0;
+    }
+    return Arrays.copyOf(ids, count);
+  }
+}
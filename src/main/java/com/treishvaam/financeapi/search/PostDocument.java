@@ -1,16 +1,24 @@
 package com.treishvaam.financeapi.search;
 
+import java.util.List;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
-@Document(indexName = "blog_posts")
+@Document(indexName = PostDocument.INDEX_NAME)
 public class PostDocument {
 
+  public static final String INDEX_NAME = "blog_posts";
+
   @Id private String id;
 
-  @Field(type = FieldType.Text, analyzer = "english")
+  // title.suggest (search_as_you_type) backs the typeahead; the main field stays english-analyzed
+  @MultiField(
+      mainField = @Field(type = FieldType.Text, analyzer = "english"),
+      otherFields = {@InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type)})
   private String title;
 
   @Field(type = FieldType.Text, analyzer = "english")
@@ -32,6 +40,13 @@ public class PostDocument {
   @Field(type = FieldType.Keyword)
   private String urlArticleId;
 
+  // --- MATCHING FIELDS (title^3 + snippet + tags/keywords) ---
+  @Field(type = FieldType.Text, analyzer = "english")
+  private List<String> tags;
+
+  @Field(type = FieldType.Text, analyzer = "english")
+  private String keywords;
+
   public PostDocument() {}
 
   public PostDocument(
@@ -117,4 +132,20 @@ public class PostDocument {
   public void setUrlArticleId(String urlArticleId) {
     this.urlArticleId = urlArticleId;
   }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public void setTags(List<String> tags) {
+    this.tags = tags;
+  }
+
+  public String getKeywords() {
+    return keywords;
+  }
+
+  public void setKeywords(String keywords) {
+    this.keywords = keywords;
+  }
 }
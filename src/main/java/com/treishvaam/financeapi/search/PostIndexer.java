@@ -0,0 +1,163 @@
+package com.treishvaam.financeapi.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.treishvaam.financeapi.model.BlogPost;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes posts to Elasticsearch with {@code _bulk} requests. One request carries every index and
+ * delete of a batch and the per-item results are reported back, so a single bad document does not
+ * fail its neighbours.
+ */
+@Component
+public class PostIndexer {
+
+  private static final String VERSION_CONFLICT = "version_conflict_engine_exception";
+
+  private final ElasticsearchClient client;
+
+  public PostIndexer(ElasticsearchClient client) {
+    this.client = client;
+  }
+
+  /**
+   * Indices live writes must reach: the {@code blog_posts} alias and, while a full reindex is
+   * building its replacement, the new index as well, so no update is lost across the alias swap.
+   */
+  public List<String> writeTargets() throws IOException {
+    if (client.indices().existsAlias(a -> a.name(SearchReindexService.BUILD_ALIAS)).value()) {
+      return List.of(PostDocument.INDEX_NAME, SearchReindexService.BUILD_ALIAS);
+    }
+    return List.of(PostDocument.INDEX_NAME);
+  }
+
+  public static PostDocument toDocument(BlogPost post) {
+    String categorySlug =
+        post.getCategory() != null ? post.getCategory().getSlug() : "uncategorized";
+    PostDocument doc =
+        new PostDocument(
+            post.getId().toString(),
+            post.getTitle(),
+            post.getCustomSnippet(),
+            post.getSlug(),
+            post.getStatus().name(),
+            categorySlug,
+            post.getUserFriendlySlug(),
+            post.getUrlArticleId());
+    doc.setTags(post.getTags() != null ? List.copyOf(post.getTags()) : List.of());
+    doc.setKeywords(post.getKeywords());
+    return doc;
+  }
+
+  /**
+   * Indexes {@code posts} and deletes {@code deleteIds} in one bulk request against {@code index}.
+   * Deleting a document that is not in the index counts as success.
+   *
+   * @return failure reason per post id; empty when every item succeeded
+   * @throws IOException if the request as a whole could not be executed
+   */
+  public Map<Long, String> bulk(
+      String index, Collection<BlogPost> posts, Collection<Long> deleteIds) throws IOException {
+    List<PostDocument> docs = new ArrayList<>(posts.size());
+    for (BlogPost post : posts) {
+      docs.add(toDocument(post));
+    }
+    return bulkDocuments(index, docs, deleteIds);
+  }
+
+  public Map<Long, String> bulkDocuments(
+      String index, Collection<PostDocument> docs, Collection<Long> deleteIds) throws IOException {
+    return bulkDocuments(index, docs, deleteIds, Map.of());
+  }
+
+  /**
+   * Like {@link #bulkDocuments(String, Collection, Collection)}, with an external version per post
+   * id (see {@link #version}) on its index or delete. Elasticsearch drops a write whose version is
+   * not newer than the one it holds, so consumers running in parallel cannot put back a post that a
+   * later event changed or deleted; such a conflict counts as success. Posts without a version are
+   * written unconditionally.
+   */
+  public Map<Long, String> bulkDocuments(
+      String index,
+      Collection<PostDocument> docs,
+      Collection<Long> deleteIds,
+      Map<Long, Long> versions)
+      throws IOException {
+    List<BulkOperation> operations = new ArrayList<>(docs.size() + deleteIds.size());
+    for (PostDocument doc : docs) {
+      Long version = versions.get(Long.valueOf(doc.getId()));
+      operations.add(
+          BulkOperation.of(
+              op ->
+                  op.index(
+                      i -> {
+                        i.id(doc.getId()).document(doc);
+                        if (version != null) i.version(version).versionType(VersionType.External);
+                        return i;
+                      })));
+    }
+    for (Long id : deleteIds) {
+      Long version = versions.get(id);
+      operations.add(
+          BulkOperation.of(
+              op ->
+                  op.delete(
+                      d -> {
+                        d.id(id.toString());
+                        if (version != null) d.version(version).versionType(VersionType.External);
+                        return d;
+                      })));
+    }
+    return execute(index, operations);
+  }
+
+  /** External version of a post state: its {@code updated_at} in microseconds. */
+  public static long version(Instant updatedAt) {
+    return updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1_000;
+  }
+
+  /**
+   * Adds {@code docs} with {@code op_type=create}, for loading a snapshot into an index that live
+   * writes reach at the same time: a document already there was written by a newer live event and
+   * is kept, so such a conflict counts as success.
+   *
+   * @return failure reason per post id; empty when every item succeeded
+   */
+  public Map<Long, String> createDocuments(String index, Collection<PostDocument> docs)
+      throws IOException {
+    List<BulkOperation> operations = new ArrayList<>(docs.size());
+    for (PostDocument doc : docs) {
+      operations.add(BulkOperation.of(op -> op.create(c -> c.id(doc.getId()).document(doc))));
+    }
+    return execute(index, operations);
+  }
+
+  private Map<Long, String> execute(String index, List<BulkOperation> operations)
+      throws IOException {
+    if (operations.isEmpty()) return Map.of();
+
+    BulkResponse response = client.bulk(b -> b.index(index).operations(operations));
+    if (!response.errors()) return Map.of();
+
+    Map<Long, String> failures = new HashMap<>();
+    for (BulkResponseItem item : response.items()) {
+      if (item.error() == null || item.id() == null) continue;
+      // A create found the document, or a versioned write found a newer one: either way the
+      // index already holds the latest state
+      if (VERSION_CONFLICT.equals(item.error().type())) continue;
+      failures.put(Long.valueOf(item.id()), item.error().type() + ": " + item.error().reason());
+    }
+    return failures;
+  }
+}
@@ -0,0 +1,206 @@
+package com.treishvaam.financeapi.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.treishvaam.financeapi.dto.SearchHitDto;
+import com.treishvaam.financeapi.dto.SearchPageDto;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Full-text post search on the Elasticsearch Java client: fuzzy multi-field matching weighted
+ * towards the title, an optional category filter, {@code search_after} paging, highlighted
+ * fragments, and source filtering so only the fields needed to render a result are fetched.
+ *
+ * <p>Calls go through the {@value #ELASTICSEARCH_CIRCUIT} circuit breaker. While it is open, or
+ * when a call fails, results come from the in-memory {@link FallbackSearchIndex} instead: no
+ * fuzziness and no highlights, but the page still renders.
+ */
+@Service
+public class PostSearchService {
+
+  /** Shared by search and typeahead: when ES is failing both switch to the fallback index. */
+  public static final String ELASTICSEARCH_CIRCUIT = "elasticsearch";
+
+  public static final int DEFAULT_PAGE_SIZE = 10;
+  public static final int MAX_PAGE_SIZE = 50;
+
+  private static final List<String> MATCH_FIELDS =
+      List.of("title^3", "snippet", "tags^2", "keywords^2");
+
+  // snippet is not fetched: the highlighted fragments are all a result list shows of it
+  private static final List<String> SOURCE_FIELDS =
+      List.of("title", "slug", "categorySlug", "userFriendlySlug", "urlArticleId");
+
+  // Pages served by the fallback index carry an offset cursor; ':' never appears in base64url
+  private static final String FALLBACK_CURSOR_PREFIX = "fb:";
+
+  private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+
+  private final ElasticsearchClient client;
+  private final FallbackSearchIndex fallbackSearchIndex;
+  private final CircuitBreaker circuitBreaker;
+
+  public PostSearchService(
+      ElasticsearchClient client,
+      FallbackSearchIndex fallbackSearchIndex,
+      CircuitBreakerRegistry circuitBreakerRegistry) {
+    this.client = client;
+    this.fallbackSearchIndex = fallbackSearchIndex;
+    this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(ELASTICSEARCH_CIRCUIT);
+  }
+
+  /**
+   * @param categorySlug restricts results to one category; null for all
+   * @param cursor {@link SearchPageDto#getNextCursor()} of the previous page; null for the first
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public SearchPageDto search(String text, String categorySlug, int size, String cursor)
+      throws IOException {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    // A paging sequence that started on the fallback stays there so pages do not overlap
+    if (cursor != null && cursor.startsWith(FALLBACK_CURSOR_PREFIX)) {
+      return searchFallback(text, categorySlug, pageSize, decodeFallbackCursor(cursor));
+    }
+    List<FieldValue> searchAfter = cursor != null ? decodeCursor(cursor) : null;
+    try {
+      return circuitBreaker.executeCheckedSupplier(
+          () -> searchElasticsearch(text, categorySlug, pageSize, searchAfter));
+    } catch (CallNotPermittedException | IOException | ElasticsearchException e) {
+      logger.warn("Elasticsearch unavailable, serving search from fallback: {}", e.toString());
+      return searchFallback(text, categorySlug, pageSize, 0);
+    } catch (Throwable e) {
+      throw e instanceof RuntimeException re ? re : new IllegalStateException(e);
+    }
+  }
+
+  private SearchPageDto searchFallback(String text, String categorySlug, int pageSize, int offset) {
+    List<SearchHitDto> results =
+        fallbackSearchIndex.search(text, categorySlug, offset, pageSize + 1);
+    String nextCursor = null;
+    if (results.size() > pageSize) {
+      results = results.subList(0, pageSize);
+      nextCursor = FALLBACK_CURSOR_PREFIX + (offset + pageSize);
+    }
+    return new SearchPageDto(
+        new ArrayList<>(results), fallbackSearchIndex.count(text, categorySlug), nextCursor);
+  }
+
+  private static int decodeFallbackCursor(String cursor) {
+    try {
+      int offset = Integer.parseInt(cursor.substring(FALLBACK_CURSOR_PREFIX.length()));
+      if (offset < 0) throw new IllegalArgumentException("Invalid search cursor");
+      return offset;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid search cursor", e);
+    }
+  }
+
+  private SearchPageDto searchElasticsearch(
+      String text, String categorySlug, int pageSize, List<FieldValue> searchAfter)
+      throws IOException {
+
+    Query query =
+        BoolQuery.of(
+                b -> {
+                  b.must(
+                      m ->
+                          m.multiMatch(
+                              mm ->
+                                  mm.query(text)
+                                      .fields(MATCH_FIELDS)
+                                      .type(TextQueryType.BestFields)
+                                      .fuzziness("AUTO")
+                                      .prefixLength(1)));
+                  if (categorySlug != null && !categorySlug.isBlank()) {
+                    b.filter(f -> f.term(t -> t.field("categorySlug").value(categorySlug)));
+                  }
+                  return b;
+                })
+            ._toQuery();
+
+    SearchResponse<PostDocument> response =
+        client.search(
+            s -> {
+              s.index(PostDocument.INDEX_NAME)
+                  .query(query)
+                  .size(pageSize)
+                  // slug is unique, which makes the sort (and therefore search_after) stable
+                  .sort(o -> o.score(sc -> sc.order(SortOrder.Desc)))
+                  .sort(o -> o.field(f -> f.field("slug").order(SortOrder.Asc)))
+                  .source(src -> src.filter(f -> f.includes(SOURCE_FIELDS)))
+                  .highlight(
+                      h ->
+                          h.preTags("<mark>")
+                              .postTags("</mark>")
+                              .fields("title", f -> f.numberOfFragments(0))
+                              .fields("snippet", f -> f.fragmentSize(160).numberOfFragments(2)));
+              if (searchAfter != null) {
+                s.searchAfter(searchAfter);
+              }
+              return s;
+            },
+            PostDocument.class);
+
+    List<SearchHitDto> results = new ArrayList<>();
+    for (Hit<PostDocument> hit : response.hits().hits()) {
+      results.add(toResult(hit));
+    }
+    List<Hit<PostDocument>> hits = response.hits().hits();
+    String nextCursor =
+        hits.size() == pageSize ? encodeCursor(hits.get(hits.size() - 1).sort()) : null;
+    long total = response.hits().total() != null ? response.hits().total().value() : hits.size();
+    return new SearchPageDto(results, total, nextCursor);
+  }
+
+  private SearchHitDto toResult(Hit<PostDocument> hit) {
+    PostDocument doc = hit.source();
+    List<String> titleHighlight = hit.highlight().get("title");
+    return new SearchHitDto(
+        Long.valueOf(hit.id()),
+        doc != null ? doc.getTitle() : null,
+        doc != null ? doc.getSlug() : null,
+        doc != null ? doc.getCategorySlug() : null,
+        doc != null ? doc.getUserFriendlySlug() : null,
+        doc != null ? doc.getUrlArticleId() : null,
+        titleHighlight != null && !titleHighlight.isEmpty() ? titleHighlight.get(0) : null,
+        hit.highlight().getOrDefault("snippet", List.of()));
+  }
+
+  // Cursor = base64url("<score>\n<slug>"), the sort values of the last hit
+  private String encodeCursor(List<FieldValue> sort) {
+    String raw = sort.get(0).doubleValue() + "\n" + sort.get(1).stringValue();
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private List<FieldValue> decodeCursor(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int split = raw.indexOf('\n');
+      if (split < 0) throw new IllegalArgumentException("Invalid search cursor");
+      return List.of(
+          FieldValue.of(Double.parseDouble(raw.substring(0, split))),
+          FieldValue.of(raw.substring(split + 1)));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid search cursor", e);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package com.treishvaam.financeapi.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.treishvaam.financeapi.dto.BlogPostSuggestionDto;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Typeahead over the {@code title.suggest} search_as_you_type field.
+ *
+ * <p>Per keystroke, in order: the in-process {@link PrefixSuggestionCache}; an already running ES
+ * request for the same prefix (concurrent users share it); a new async {@code bool_prefix} query.
+ * When a client types its next character before the previous answer arrived, the previous request
+ * is answered empty at once and its ES call is cancelled unless someone else is waiting on it.
+ * While the Elasticsearch circuit is open, or a query fails, {@link FallbackSearchIndex} answers.
+ */
+@Service
+public class PostSuggestService {
+
+  private static final Logger logger = LoggerFactory.getLogger(PostSuggestService.class);
+
+  public static final int LIMIT = 8;
+  private static final int MAX_PREFIX_LENGTH = 64;
+
+  private static final List<String> SUGGEST_FIELDS =
+      List.of("title.suggest", "title.suggest._2gram", "title.suggest._3gram", "title");
+  private static final List<String> SOURCE_FIELDS =
+      List.of("title", "slug", "categorySlug", "userFriendlySlug", "urlArticleId");
+
+  private final ElasticsearchAsyncClient asyncClient;
+  private final PrefixSuggestionCache cache;
+  private final FallbackSearchIndex fallbackSearchIndex;
+  private final CircuitBreaker circuitBreaker;
+  private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Pending> latestByClient = new ConcurrentHashMap<>();
+
+  private static final class InFlight {
+    final CompletableFuture<List<BlogPostSuggestionDto>> response;
+    final AtomicInteger waiters = new AtomicInteger();
+
+    InFlight(CompletableFuture<List<BlogPostSuggestionDto>> response) {
+      this.response = response;
+    }
+  }
+
+  private record Pending(
+      String prefix, InFlight source, CompletableFuture<List<BlogPostSuggestionDto>> answer) {}
+
+  public PostSuggestService(
+      ElasticsearchClient client,
+      FallbackSearchIndex fallbackSearchIndex,
+      CircuitBreakerRegistry circuitBreakerRegistry,
+      @Value("${app.search.suggest.cache-size:5000}") int cacheSize,
+      @Value("${app.search.suggest.cache-ttl-ms:30000}") long cacheTtlMs) {
+    this.asyncClient = new ElasticsearchAsyncClient(client._transport());
+    this.cache = new PrefixSuggestionCache(cacheSize, cacheTtlMs);
+    this.fallbackSearchIndex = fallbackSearchIndex;
+    this.circuitBreaker =
+        circuitBreakerRegistry.circuitBreaker(PostSearchService.ELASTICSEARCH_CIRCUIT);
+  }
+
+  /** Lower-cased, punctuation-free, single-spaced prefix; empty if nothing searchable is left. */
+  public static String normalize(String text) {
+    if (text == null) return "";
+    String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    return normalized.length() > MAX_PREFIX_LENGTH
+        ? normalized.substring(0, MAX_PREFIX_LENGTH).trim()
+        : normalized;
+  }
+
+  /**
+   * @param clientKey identifies one typing session; a newer call with the same key supersedes an
+   *     unanswered older one
+   * @return suggestions, or {@code null} if this request was superseded
+   */
+  public CompletableFuture<List<BlogPostSuggestionDto>> suggest(String text, String clientKey) {
+    String prefix = normalize(text);
+    if (prefix.isEmpty()) return CompletableFuture.completedFuture(List.of());
+
+    List<BlogPostSuggestionDto> cached = cache.lookup(prefix);
+    if (cached != null) {
+      supersede(clientKey, prefix, null);
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    InFlight source = join(prefix);
+    CompletableFuture<List<BlogPostSuggestionDto>> answer = new CompletableFuture<>();
+    source.response.whenComplete(
+        (results, error) -> {
+          if (error != null) answer.completeExceptionally(error);
+          else answer.complete(results);
+        });
+    Pending pending = new Pending(prefix, source, answer);
+    supersede(clientKey, prefix, pending);
+    answer.whenComplete((r, e) -> latestByClient.remove(clientKey, pending));
+    return answer;
+  }
+
+  private InFlight join(String prefix) {
+    while (true) {
+      InFlight current = inFlight.get(prefix);
+      if (current == null) {
+        InFlight created = new InFlight(new CompletableFuture<>());
+        current = inFlight.putIfAbsent(prefix, created);
+        if (current == null) {
+          current = created;
+          query(prefix, created.response);
+        }
+      }
+      current.waiters.incrementAndGet();
+      if (!current.response.isCancelled()) return current;
+      current.waiters.decrementAndGet();
+      inFlight.remove(prefix, current);
+    }
+  }
+
+  private void supersede(String clientKey, String prefix, Pending next) {
+    Pending previous =
+        next != null ? latestByClient.put(clientKey, next) : latestByClient.remove(clientKey);
+    if (previous == null || previous.answer().isDone()) return;
+    // Only a continuation of the same typing (more characters or a backspace) supersedes; two
+    // people behind one NAT address searching different things must not cancel each other
+    if (!prefix.startsWith(previous.prefix()) && !previous.prefix().startsWith(prefix)) {
+      return;
+    }
+    previous.answer().complete(null);
+    if (previous.source().waiters.decrementAndGet() == 0) {
+      // Nobody else wants this prefix any more: abort the HTTP request to ES
+      previous.source().response.cancel(true);
+    }
+  }
+
+  private void query(String prefix, CompletableFuture<List<BlogPostSuggestionDto>> result) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      // Not cached: the answer should come from ES again as soon as the circuit closes
+      inFlight.computeIfPresent(prefix, (p, f) -> f.response == result ? null : f);
+      result.complete(fallbackSearchIndex.suggest(prefix, LIMIT));
+      return;
+    }
+    long started = circuitBreaker.getCurrentTimestamp();
+    CompletableFuture<SearchResponse<PostDocument>> request =
+        asyncClient.search(
+            s ->
+                s.index(PostDocument.INDEX_NAME)
+                    .size(LIMIT)
+                    .timeout("200ms")
+                    .query(
+                        q ->
+                            q.multiMatch(
+                                m ->
+                                    m.query(prefix)
+                                        .type(TextQueryType.BoolPrefix)
+                                        .operator(Operator.And)
+                                        .fields(SUGGEST_FIELDS)))
+                    .source(src -> src.filter(f -> f.includes(SOURCE_FIELDS))),
+            PostDocument.class);
+
+    request.whenComplete(
+        (response, error) -> {
+          inFlight.computeIfPresent(prefix, (p, f) -> f.response == result ? null : f);
+          long elapsed = circuitBreaker.getCurrentTimestamp() - started;
+          if (result.isCancelled()) {
+            // Superseded, not a failure of ES
+            circuitBreaker.releasePermission();
+            return;
+          }
+          if (error != null) {
+            logger.warn("Suggestion query for '{}' failed: {}", prefix, error.toString());
+            circuitBreaker.onError(elapsed, circuitBreaker.getTimestampUnit(), error);
+            result.complete(fallbackSearchIndex.suggest(prefix, LIMIT));
+            return;
+          }
+          circuitBreaker.onSuccess(elapsed, circuitBreaker.getTimestampUnit());
+          List<BlogPostSuggestionDto> suggestions = toSuggestions(response);
+          cache.put(prefix, suggestions, LIMIT);
+          result.complete(suggestions);
+        });
+    // Cancelling the shared future cancels the underlying ES request
+    result.whenComplete(
+        (r, e) -> {
+          if (result.isCancelled()) request.cancel(true);
+        });
+  }
+
+  private List<BlogPostSuggestionDto> toSuggestions(SearchResponse<PostDocument> response) {
+    List<BlogPostSuggestionDto> suggestions = new ArrayList<>();
+    for (Hit<PostDocument> hit : response.hits().hits()) {
+      PostDocument doc = hit.source();
+      if (doc == null) continue;
+      suggestions.add(
+          new BlogPostSuggestionDto(
+              Long.valueOf(hit.id()),
+              doc.getTitle(),
+              doc.getSlug(),
+              doc.getCategorySlug(),
+              doc.getUserFriendlySlug(),
+              doc.getUrlArticleId()));
+    }
+    return suggestions;
+  }
+}
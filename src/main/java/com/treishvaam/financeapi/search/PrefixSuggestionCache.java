@@ -0,0 +1,80 @@
+package com.treishvaam.financeapi.search;
+
+import com.treishvaam.financeapi.dto.BlogPostSuggestionDto;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Small in-process cache of typeahead results keyed by normalized prefix.
+ *
+ * <p>Besides exact hits it answers a single-term prefix from the nearest shorter prefix whose
+ * result list was complete (fewer hits than the limit): every match for "infla" is also a match for
+ * "inf", so once "inf" is cached with its full result set, the following keystrokes are filtered
+ * locally and never reach Elasticsearch. Prefixes of several terms are only served from exact hits,
+ * as ES also matches complete terms through the stemmed {@code title} field, which a local
+ * comparison of title words cannot reproduce. Entries expire after a short TTL so newly published
+ * posts show up quickly.
+ */
+class PrefixSuggestionCache {
+
+  private record Entry(List<BlogPostSuggestionDto> results, boolean complete, long expiresAt) {}
+
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final Map<String, Entry> entries;
+
+  PrefixSuggestionCache(int maxEntries, long ttlMillis) {
+    this.maxEntries = maxEntries;
+    this.ttlMillis = ttlMillis;
+    // Access-ordered LinkedHashMap = LRU; popular prefixes stay resident
+    this.entries =
+        new LinkedHashMap<>(256, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > PrefixSuggestionCache.this.maxEntries;
+          }
+        };
+  }
+
+  /** Cached or locally derived results for {@code prefix}, or {@code null} on a miss. */
+  synchronized List<BlogPostSuggestionDto> lookup(String prefix) {
+    long now = System.currentTimeMillis();
+    for (int len = prefix.length(); len > 0; len--) {
+      String key = prefix.substring(0, len);
+      Entry entry = entries.get(key);
+      if (entry == null) continue;
+      if (entry.expiresAt() < now) {
+        entries.remove(key);
+        continue;
+      }
+      if (len == prefix.length()) return entry.results();
+      if (entry.complete() && prefix.indexOf(' ') < 0) return narrow(entry.results(), prefix);
+    }
+    return null;
+  }
+
+  synchronized void put(String prefix, List<BlogPostSuggestionDto> results, int limit) {
+    entries.put(
+        prefix,
+        new Entry(
+            List.copyOf(results), results.size() < limit, System.currentTimeMillis() + ttlMillis));
+  }
+
+  /** Candidates with a title word starting with {@code term}. */
+  static List<BlogPostSuggestionDto> narrow(List<BlogPostSuggestionDto> candidates, String term) {
+    List<BlogPostSuggestionDto> narrowed = new ArrayList<>();
+    for (BlogPostSuggestionDto candidate : candidates) {
+      if (candidate.getTitle() == null) continue;
+      for (String word : candidate.getTitle().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+        if (word.startsWith(term)) {
+          narrowed.add(candidate);
+          break;
+        }
+      }
+    }
+    return narrowed;
+  }
+}
@@ -0,0 +1,102 @@
+package com.treishvaam.financeapi.search;
+
+import com.treishvaam.financeapi.model.PostStatus;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads published posts as {@link PostDocument}s in keyset order through a narrow JDBC projection
+ * (no content LOBs, one extra query per chunk for tags). Used by the full reindex and the search
+ * fallback index.
+ */
+@Component
+public class PublishedPostLoader {
+
+  private static final String SELECT_CHUNK_SQL =
+      "SELECT p.id, p.title, p.custom_snippet, p.slug, p.status, c.slug AS category_slug,"
+          + " p.user_friendly_slug, p.url_article_id, p.keywords"
+          + " FROM blog_posts p LEFT JOIN categories c ON c.id = p.category_id"
+          + " WHERE p.status = ? AND p.id > ? ORDER BY p.id LIMIT ?";
+
+  private static final RowMapper<PostDocument> DOCUMENT_MAPPER =
+      (rs, rowNum) -> {
+        PostDocument doc =
+            new PostDocument(
+                String.valueOf(rs.getLong("id")),
+                rs.getString("title"),
+                rs.getString("custom_snippet"),
+                rs.getString("slug"),
+                rs.getString("status"),
+                rs.getString("category_slug") != null
+                    ? rs.getString("category_slug")
+                    : "uncategorized",
+                rs.getString("user_friendly_slug"),
+                rs.getString("url_article_id"));
+        doc.setKeywords(rs.getString("keywords"));
+        doc.setTags(new ArrayList<>());
+        return doc;
+      };
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public PublishedPostLoader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public long countPublished() {
+    Long total =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM blog_posts WHERE status = ?",
+            Long.class,
+            PostStatus.PUBLISHED.name());
+    return total == null ? 0 : total;
+  }
+
+  /** Up to {@code limit} published posts with an id greater than {@code afterId}, by id. */
+  public List<PostDocument> loadChunk(long afterId, int limit) {
+    List<PostDocument> docs =
+        jdbcTemplate.query(
+            SELECT_CHUNK_SQL, DOCUMENT_MAPPER, PostStatus.PUBLISHED.name(), afterId, limit);
+    if (!docs.isEmpty()) {
+      attachTags(docs);
+    }
+    return docs;
+  }
+
+  /** The ids among {@code ids} whose post is still published. */
+  public Set<Long> publishedAmong(Collection<Long> ids) {
+    if (ids.isEmpty()) return Set.of();
+    String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+    List<Object> args = new ArrayList<>(ids.size() + 1);
+    args.add(PostStatus.PUBLISHED.name());
+    args.addAll(ids);
+    return new HashSet<>(
+        jdbcTemplate.queryForList(
+            "SELECT id FROM blog_posts WHERE status = ? AND id IN (" + placeholders + ")",
+            Long.class,
+            args.toArray()));
+  }
+
+  // One query per chunk for the tag collection instead of one per post
+  private void attachTags(List<PostDocument> docs) {
+    Map<Long, PostDocument> byId = new HashMap<>();
+    for (PostDocument doc : docs) byId.put(Long.valueOf(doc.getId()), doc);
+    String placeholders = String.join(",", Collections.nCopies(docs.size(), "?"));
+    jdbcTemplate.query(
+        "SELECT post_id, tag FROM post_tags WHERE post_id IN (" + placeholders + ")",
+        rs -> {
+          PostDocument doc = byId.get(rs.getLong("post_id"));
+          if (doc != null) doc.getTags().add(rs.getString("tag"));
+        },
+        byId.keySet().toArray());
+  }
+}
@@ -0,0 +1,89 @@
+package com.treishvaam.financeapi.search;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/** Progress of the last full reindex started on this node. */
+public record ReindexStatus(
+    String state,
+    String index,
+    long total,
+    long indexed,
+    long failed,
+    long lastId,
+    double percent,
+    long docsPerSecond,
+    Instant startedAt,
+    Instant finishedAt,
+    String error) {
+
+  public static final String IDLE = "IDLE";
+  public static final String RUNNING = "RUNNING";
+  public static final String COMPLETED = "COMPLETED";
+  public static final String FAILED = "FAILED";
+
+  static ReindexStatus idle() {
+    return new ReindexStatus(IDLE, null, 0, 0, 0, 0, 0, 0, null, null, null);
+  }
+
+  static ReindexStatus started(String index, long total) {
+    return new ReindexStatus(RUNNING, index, total, 0, 0, 0, 0, 0, Instant.now(), null, null);
+  }
+
+  ReindexStatus progress(long newlyIndexed, long newlyFailed, long lastId, Instant started) {
+    long done = indexed + newlyIndexed;
+    long bad = failed + newlyFailed;
+    return new ReindexStatus(
+        RUNNING,
+        index,
+        total,
+        done,
+        bad,
+        lastId,
+        percentOf(done + bad),
+        rate(done, started),
+        startedAt,
+        null,
+        null);
+  }
+
+  ReindexStatus completed(Instant started) {
+    return new ReindexStatus(
+        COMPLETED,
+        index,
+        total,
+        indexed,
+        failed,
+        lastId,
+        100,
+        rate(indexed, started),
+        startedAt,
+        Instant.now(),
+        null);
+  }
+
+  ReindexStatus failed(Instant started, String message) {
+    return new ReindexStatus(
+        FAILED,
+        index,
+        total,
+        indexed,
+        failed,
+        lastId,
+        percent,
+        rate(indexed, started),
+        startedAt,
+        Instant.now(),
+        message);
+  }
+
+  private double percentOf(long processed) {
+    if (total == 0) return 100;
+    return Math.min(100, Math.round(processed * 1000.0 / total) / 10.0);
+  }
+
+  private static long rate(long docs, Instant started) {
+    long millis = Math.max(1, Duration.between(started, Instant.now()).toMillis());
+    return docs * 1000 / millis;
+  }
+}
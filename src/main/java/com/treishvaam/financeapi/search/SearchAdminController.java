@@ -0,0 +1,44 @@
+package com.treishvaam.financeapi.search;
+
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/search")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class SearchAdminController {
+
+  private static final Logger logger = LoggerFactory.getLogger(SearchAdminController.class);
+
+  private final SearchReindexService searchReindexService;
+
+  public SearchAdminController(SearchReindexService searchReindexService) {
+    this.searchReindexService = searchReindexService;
+  }
+
+  @GetMapping("/reindex")
+  public ResponseEntity<ReindexStatus> getReindexStatus() {
+    return ResponseEntity.ok(searchReindexService.status());
+  }
+
+  @PostMapping("/reindex")
+  public ResponseEntity<?> startReindex() {
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(searchReindexService.start());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    } catch (Exception e) {
+      logger.error("Could not start search reindex", e);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(Map.of("message", "Could not start reindex: " + e.getMessage()));
+    }
+  }
+}
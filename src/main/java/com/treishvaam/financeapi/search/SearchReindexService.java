@@ -0,0 +1,223 @@
+package com.treishvaam.financeapi.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rebuilds the search index without downtime. Published posts are streamed from MariaDB in keyset
+ * order into a fresh, versioned index (replicas 0, refresh disabled while loading) with {@code
+ * _bulk} requests; searches keep hitting the {@code blog_posts} alias, which is swapped to the new
+ * index in one atomic {@code _aliases} call once it is complete.
+ *
+ * <p>While loading, the new index carries the {@link #BUILD_ALIAS} alias and the search event
+ * consumer on every node writes to it too (see {@link PostIndexer#writeTargets()}), so edits made
+ * during the rebuild are not lost. Snapshot rows are added with {@code op_type=create}, so a newer
+ * live write is never overwritten by an older row; posts deleted or unpublished after their chunk
+ * was read are found by re-checking the loaded ids against the database before the alias swap.
+ */
+@Service
+public class SearchReindexService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SearchReindexService.class);
+
+  public static final String BUILD_ALIAS = PostDocument.INDEX_NAME + "_reindex";
+
+  private static final DateTimeFormatter VERSION_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+  private final ElasticsearchClient client;
+  private final ElasticsearchOperations elasticsearchOperations;
+  private final PostIndexer postIndexer;
+  private final PublishedPostLoader publishedPostLoader;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private volatile ReindexStatus status = ReindexStatus.idle();
+
+  @Value("${app.search.reindex.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${app.search.reindex.replicas:1}")
+  private String replicas;
+
+  @Value("${app.search.reindex.refresh-interval:1s}")
+  private String refreshInterval;
+
+  public SearchReindexService(
+      ElasticsearchClient client,
+      ElasticsearchOperations elasticsearchOperations,
+      PostIndexer postIndexer,
+      PublishedPostLoader publishedPostLoader) {
+    this.client = client;
+    this.elasticsearchOperations = elasticsearchOperations;
+    this.postIndexer = postIndexer;
+    this.publishedPostLoader = publishedPostLoader;
+  }
+
+  public ReindexStatus status() {
+    return status;
+  }
+
+  /**
+   * Creates the new index and starts loading it in the background.
+   *
+   * @throws IllegalStateException if a reindex is already running on any node
+   */
+  public ReindexStatus start() throws IOException {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("A reindex is already running");
+    }
+    try {
+      if (client.indices().existsAlias(a -> a.name(BUILD_ALIAS)).value()) {
+        throw new IllegalStateException(
+            "A reindex is already running (alias " + BUILD_ALIAS + " exists)");
+      }
+      String newIndex = PostDocument.INDEX_NAME + "_" + VERSION_FORMAT.format(Instant.now());
+      createIndex(newIndex);
+      status = ReindexStatus.started(newIndex, publishedPostLoader.countPublished());
+      Thread.ofVirtual().name("search-reindex").start(() -> execute(newIndex));
+      return status;
+    } catch (IOException | RuntimeException e) {
+      running.set(false);
+      throw e;
+    }
+  }
+
+  private void createIndex(String name) throws IOException {
+    // Mapping comes from the PostDocument annotations, exactly as Spring Data would create it
+    Document mapping =
+        elasticsearchOperations.indexOps(PostDocument.class).createMapping(PostDocument.class);
+    client
+        .indices()
+        .create(
+            c ->
+                c.index(name)
+                    .mappings(m -> m.withJson(new StringReader(mapping.toJson())))
+                    .settings(s -> s.numberOfReplicas("0").refreshInterval(t -> t.time("-1")))
+                    .aliases(BUILD_ALIAS, a -> a));
+  }
+
+  private void execute(String newIndex) {
+    Instant started = Instant.now();
+    try {
+      long lastId = 0;
+      List<List<Long>> loadedChunks = new ArrayList<>();
+      while (true) {
+        List<PostDocument> docs = publishedPostLoader.loadChunk(lastId, batchSize);
+        if (docs.isEmpty()) break;
+        List<Long> ids = new ArrayList<>(docs.size());
+        for (PostDocument doc : docs) ids.add(Long.valueOf(doc.getId()));
+        loadedChunks.add(ids);
+        Map<Long, String> failures = postIndexer.createDocuments(newIndex, docs);
+        if (!failures.isEmpty()) {
+          logger.warn("Reindex: {} document(s) failed in chunk: {}", failures.size(), failures);
+        }
+        lastId = Long.parseLong(docs.get(docs.size() - 1).getId());
+        status = status.progress(docs.size() - failures.size(), failures.size(), lastId, started);
+        if (docs.size() < batchSize) break;
+      }
+      removeStaleRows(newIndex, loadedChunks);
+
+      // Restore serving settings before the index takes traffic
+      client
+          .indices()
+          .putSettings(
+              p ->
+                  p.index(newIndex)
+                      .settings(
+                          s ->
+                              s.numberOfReplicas(replicas)
+                                  .refreshInterval(t -> t.time(refreshInterval))));
+      client.indices().refresh(r -> r.index(newIndex));
+      List<String> previous = swapAlias(newIndex);
+      for (String old : previous) {
+        client.indices().delete(d -> d.index(old));
+      }
+      status = status.completed(started);
+      logger.info(
+          "Reindex into {} completed: {} indexed, {} failed in {}s ({} docs/s). Removed: {}",
+          newIndex,
+          status.indexed(),
+          status.failed(),
+          Duration.between(started, Instant.now()).toSeconds(),
+          status.docsPerSecond(),
+          previous);
+    } catch (Exception e) {
+      logger.error("Reindex into {} failed; the live index is untouched", newIndex, e);
+      status = status.failed(started, e.getMessage());
+      try {
+        client.indices().delete(d -> d.index(newIndex));
+      } catch (Exception cleanup) {
+        logger.error("Could not remove incomplete index {}", newIndex, cleanup);
+      }
+    } finally {
+      running.set(false);
+    }
+  }
+
+  /**
+   * Deletes the loaded posts that are no longer published. A live delete that reached the new index
+   * before the snapshot row was added is a no-op there, and the row would otherwise bring the post
+   * back; deletes after this pass find the document and remove it directly.
+   */
+  private void removeStaleRows(String newIndex, List<List<Long>> loadedChunks) throws IOException {
+    int removed = 0;
+    for (List<Long> ids : loadedChunks) {
+      Set<Long> published = publishedPostLoader.publishedAmong(ids);
+      List<Long> tombstones = new ArrayList<>();
+      for (Long id : ids) {
+        if (!published.contains(id)) tombstones.add(id);
+      }
+      Map<Long, String> failures = postIndexer.bulkDocuments(newIndex, List.of(), tombstones);
+      if (!failures.isEmpty()) {
+        throw new IOException("Could not remove deleted posts from " + newIndex + ": " + failures);
+      }
+      removed += tombstones.size();
+    }
+    if (removed > 0) {
+      logger.info("Reindex: removed {} post(s) deleted or unpublished during the load", removed);
+    }
+  }
+
+  /**
+   * Points {@code blog_posts} at {@code newIndex} and drops the build alias in a single atomic
+   * request. A legacy concrete {@code blog_posts} index is removed in the same request so the name
+   * can become an alias.
+   *
+   * @return the indices that served the alias before
+   */
+  private List<String> swapAlias(String newIndex) throws IOException {
+    List<Action> actions = new ArrayList<>();
+    List<String> previous = new ArrayList<>();
+    boolean exists = client.indices().exists(e -> e.index(PostDocument.INDEX_NAME)).value();
+    if (client.indices().existsAlias(a -> a.name(PostDocument.INDEX_NAME)).value()) {
+      previous.addAll(
+          client.indices().getAlias(a -> a.name(PostDocument.INDEX_NAME)).result().keySet());
+      for (String old : previous) {
+        actions.add(Action.of(a -> a.remove(r -> r.index(old).alias(PostDocument.INDEX_NAME))));
+      }
+    } else if (exists) {
+      actions.add(Action.of(a -> a.removeIndex(r -> r.index(PostDocument.INDEX_NAME))));
+    }
+    actions.add(Action.of(a -> a.add(ad -> ad.index(newIndex).alias(PostDocument.INDEX_NAME))));
+    actions.add(Action.of(a -> a.remove(r -> r.index(newIndex).alias(BUILD_ALIAS))));
+    client.indices().updateAliases(u -> u.actions(actions));
+    previous.remove(newIndex);
+    return previous;
+  }
+}
@@ -0,0 +1,78 @@
+package com.treishvaam.financeapi.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer for the in-memory fallback index: lower-cases, splits on anything that is not a letter
+ * or digit, drops English stop words and applies a light suffix stemmer ("rates" / "rated" /
+ * "rating" all become "rat"). It only has to agree with itself, not with the ES analyzer.
+ */
+final class TextAnalyzer {
+
+  private static final Set<String> STOP_WORDS =
+      Set.of(
+          "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is",
+          "it", "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there",
+          "these", "they", "this", "to", "was", "will", "with");
+
+  private TextAnalyzer() {}
+
+  /** Lower-cased words without stemming, in order. */
+  static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) return words;
+    for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!word.isEmpty()) words.add(word);
+    }
+    return words;
+  }
+
+  /** Stemmed index terms, stop words removed. */
+  static List<String> terms(String text) {
+    List<String> terms = new ArrayList<>();
+    for (String word : words(text)) {
+      if (!STOP_WORDS.contains(word)) terms.add(stem(word));
+    }
+    return terms;
+  }
+
+  static String stem(String word) {
+    if (word.length() <= 3) return word;
+    if (word.endsWith("ies") && word.length() > 4) {
+      word = word.substring(0, word.length() - 3) + "y";
+    } else if (word.endsWith("sses")) {
+      word = word.substring(0, word.length() - 2);
+    } else if (word.endsWith("s")
+        && !word.endsWith("ss")
+        && !word.endsWith("us")
+        && !word.endsWith("is")) {
+      word = word.substring(0, word.length() - 1);
+    }
+    if (word.endsWith("ing") && word.length() > 5) {
+      word = undouble(word.substring(0, word.length() - 3));
+    } else if (word.endsWith("ed") && word.length() > 4) {
+      word = undouble(word.substring(0, word.length() - 2));
+    } else if (word.endsWith("ly") && word.length() > 4) {
+      word = word.substring(0, word.length() - 2);
+    }
+    // Trailing e goes last so "rate", "rated" and "rating" meet at "rat"
+    if (word.endsWith("e") && word.length() > 3) {
+      word = word.substring(0, word.length() - 1);
+    }
+    return word;
+  }
+
+  // "running" -> "runn" -> "run"
+  private static String undouble(String stem) {
+    int n = stem.length();
+    if (n > 2
+        && stem.charAt(n - 1) == stem.charAt(n - 2)
+        && "lsz".indexOf(stem.charAt(n - 1)) < 0) {
+      return stem.substring(0, n - 1);
+    }
+    return stem;
+  }
+}
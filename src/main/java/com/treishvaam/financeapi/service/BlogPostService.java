@@ -44,8 +44,6 @@ public interface BlogPostService {
 
   List<BlogPost> findAllByStatus(PostStatus status);
 
-  int backfillSlugs();
-
   BlogPost duplicatePost(Long id);
 
   String generateUserFriendlySlug(String title);
@@ -54,8 +52,6 @@ public interface BlogPostService {
 
   Optional<BlogPost> findByUrlArticleId(String urlArticleId);
 
-  int backfillUrlArticleIds();
-
   // NEW METHOD TO FIND CATEGORY
   Category findCategoryByName(String name);
 
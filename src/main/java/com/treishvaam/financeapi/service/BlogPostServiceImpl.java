@@ -4,7 +4,7 @@ import com.treishvaam.financeapi.config.CachingConfig;
 import com.treishvaam.financeapi.config.tenant.TenantContext;
 import com.treishvaam.financeapi.dto.BlogPostDto;
 import com.treishvaam.financeapi.dto.PostThumbnailDto;
-import com.treishvaam.financeapi.messaging.MessagePublisher;
+import com.treishvaam.financeapi.messaging.EventOutbox;
 import com.treishvaam.financeapi.model.BlogPost;
 import com.treishvaam.financeapi.model.Category;
 import com.treishvaam.financeapi.model.PostStatus;
@@ -18,6 +18,8 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -30,10 +32,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
@@ -43,10 +45,12 @@ public class BlogPostServiceImpl implements BlogPostService {
 
   @Autowired private BlogPostRepository blogPostRepository;
 
-  @Autowired private MessagePublisher messagePublisher;
+  @Autowired private EventOutbox eventOutbox;
 
   @Autowired private CategoryRepository categoryRepository;
   @Autowired private ImageService imageService;
+  @Autowired private ScheduledPostPublisher scheduledPostPublisher;
+  @Autowired private TransactionTemplate transactionTemplate;
 
   private String generateUniqueId() {
     SecureRandom random = new SecureRandom();
@@ -56,10 +60,15 @@ public class BlogPostServiceImpl implements BlogPostService {
   }
 
   private String generateUrlArticleId(BlogPost post) {
-    if (post == null || post.getCreatedAt() == null || post.getId() == null) return null;
+    if (post == null) return null;
+    return generateUrlArticleId(post.getCreatedAt(), post.getId());
+  }
+
+  public static String generateUrlArticleId(Instant createdAt, Long id) {
+    if (createdAt == null || id == null) return null;
     DateTimeFormatter formatter =
         DateTimeFormatter.ofPattern("EEEddMMyyyyHHmm", Locale.ENGLISH).withZone(ZoneId.of("UTC"));
-    return (formatter.format(post.getCreatedAt()) + post.getId()).toLowerCase();
+    return (formatter.format(createdAt) + id).toLowerCase();
   }
 
   @Override
@@ -159,7 +168,6 @@ public class BlogPostServiceImpl implements BlogPostService {
   }
 
   @Override
-  @Transactional
   @CacheEvict(
       value = CachingConfig.BLOG_POST_CACHE,
       key = "#result.urlArticleId",
@@ -169,33 +177,59 @@ public class BlogPostServiceImpl implements BlogPostService {
       List<MultipartFile> newThumbnails,
       List<PostThumbnailDto> thumbnailDtos,
       MultipartFile coverImage) {
-    if (coverImage != null && !coverImage.isEmpty()) {
-      ImageMetadataDto coverMetadata = imageService.saveImageAndGetMetadata(coverImage);
-      if (coverMetadata != null) blogPost.setCoverImageUrl(coverMetadata.getBaseFilename());
-    }
-
     Map<String, MultipartFile> newFilesMap =
         newThumbnails != null
             ? newThumbnails.stream()
                 .collect(Collectors.toMap(MultipartFile::getOriginalFilename, Function.identity()))
             : Map.of();
+
+    // 1. Image work (decode, blurhash, renditions, upload) runs in parallel BEFORE the
+    // transaction opens, so no DB connection is held while WebP encoding is in progress.
+    boolean hasCover = coverImage != null && !coverImage.isEmpty();
+    Map<String, MultipartFile> referencedUploads = new LinkedHashMap<>();
+    for (PostThumbnailDto dto : thumbnailDtos) {
+      if ("new".equals(dto.getSource())) {
+        MultipartFile file = newFilesMap.get(dto.getFileName());
+        if (file != null && !file.isEmpty()) referencedUploads.putIfAbsent(dto.getFileName(), file);
+      }
+    }
+    List<MultipartFile> uploads = new ArrayList<>();
+    if (hasCover) uploads.add(coverImage);
+    uploads.addAll(referencedUploads.values());
+    List<ImageMetadataDto> processed = imageService.saveImagesAndGetMetadata(uploads);
+
+    ImageMetadataDto coverMetadata = hasCover ? processed.get(0) : null;
+    Map<String, ImageMetadataDto> thumbnailMetadata = new HashMap<>();
+    int index = hasCover ? 1 : 0;
+    for (String fileName : referencedUploads.keySet()) {
+      ImageMetadataDto metadata = processed.get(index++);
+      if (metadata != null) thumbnailMetadata.put(fileName, metadata);
+    }
+
+    // 2. Only metadata is persisted inside the transaction
+    return transactionTemplate.execute(
+        status -> persistPost(blogPost, thumbnailDtos, coverMetadata, thumbnailMetadata));
+  }
+
+  private BlogPost persistPost(
+      BlogPost blogPost,
+      List<PostThumbnailDto> thumbnailDtos,
+      ImageMetadataDto coverMetadata,
+      Map<String, ImageMetadataDto> thumbnailMetadata) {
+    if (coverMetadata != null) blogPost.setCoverImageUrl(coverMetadata.getBaseFilename());
+
     List<PostThumbnail> finalThumbnails = new ArrayList<>();
     for (PostThumbnailDto dto : thumbnailDtos) {
       PostThumbnail thumbnail;
       if ("new".equals(dto.getSource())) {
-        MultipartFile file = newFilesMap.get(dto.getFileName());
-        if (file != null && !file.isEmpty()) {
-          ImageMetadataDto metadata = imageService.saveImageAndGetMetadata(file);
-          if (metadata == null) continue;
-          thumbnail = new PostThumbnail();
-          thumbnail.setImageUrl(metadata.getBaseFilename());
-          thumbnail.setWidth(metadata.getWidth());
-          thumbnail.setHeight(metadata.getHeight());
-          thumbnail.setMimeType(metadata.getMimeType());
-          thumbnail.setBlurHash(metadata.getBlurHash());
-        } else {
-          continue;
-        }
+        ImageMetadataDto metadata = thumbnailMetadata.get(dto.getFileName());
+        if (metadata == null) continue;
+        thumbnail = new PostThumbnail();
+        thumbnail.setImageUrl(metadata.getBaseFilename());
+        thumbnail.setWidth(metadata.getWidth());
+        thumbnail.setHeight(metadata.getHeight());
+        thumbnail.setMimeType(metadata.getMimeType());
+        thumbnail.setBlurHash(metadata.getBlurHash());
       } else {
         thumbnail =
             blogPost.getThumbnails().stream()
@@ -233,17 +267,14 @@ public class BlogPostServiceImpl implements BlogPostService {
       savedPost = blogPostRepository.save(savedPost);
     }
 
-    // --- PHASE 6 FIX: Robust Messaging Handling ---
+    if (savedPost.getStatus() == PostStatus.SCHEDULED) {
+      scheduledPostPublisher.schedule(savedPost.getId(), savedPost.getScheduledTime());
+    }
+
+    // Written to the outbox in this transaction; relayed to RabbitMQ after commit
     if (savedPost.getStatus() == PostStatus.PUBLISHED) {
-      try {
-        messagePublisher.publishSearchIndexEvent(savedPost.getId(), "INDEX");
-        messagePublisher.publishSitemapRegenerateEvent();
-      } catch (Exception e) {
-        logger.error(
-            "Failed to publish async events for post ID: {}. Post was saved successfully.",
-            savedPost.getId(),
-            e);
-      }
+      eventOutbox.enqueueSearchIndexEvent(savedPost.getId(), "INDEX");
+      eventOutbox.enqueueSitemapRegenerateEvent(savedPost.getId());
     }
 
     return savedPost;
@@ -254,12 +285,8 @@ public class BlogPostServiceImpl implements BlogPostService {
   @CacheEvict(value = CachingConfig.BLOG_POST_CACHE, allEntries = true)
   public void deleteById(Long id) {
     blogPostRepository.deleteById(id);
-    try {
-      messagePublisher.publishSearchIndexEvent(id, "DELETE");
-      messagePublisher.publishSitemapRegenerateEvent();
-    } catch (Exception e) {
-      logger.error("Failed to publish delete events for post ID: {}", id, e);
-    }
+    eventOutbox.enqueueSearchIndexEvent(id, "DELETE");
+    eventOutbox.enqueueSitemapRegenerateEvent(id);
   }
 
   @Override
@@ -268,45 +295,18 @@ public class BlogPostServiceImpl implements BlogPostService {
   public void deletePostsInBulk(List<Long> postIds) {
     if (postIds != null && !postIds.isEmpty()) {
       blogPostRepository.deleteByIdIn(postIds);
-      try {
-        for (Long id : postIds) {
-          messagePublisher.publishSearchIndexEvent(id, "DELETE");
-        }
-        messagePublisher.publishSitemapRegenerateEvent();
-      } catch (Exception e) {
-        logger.error("Failed to publish bulk delete events", e);
+      for (Long id : postIds) {
+        eventOutbox.enqueueSearchIndexEvent(id, "DELETE");
+        eventOutbox.enqueueSitemapRegenerateEvent(id);
       }
     }
   }
 
   @Override
-  @Scheduled(fixedRate = 60000)
-  @Transactional
   public void checkAndPublishScheduledPosts() {
-    List<BlogPost> postsToPublish =
-        blogPostRepository.findByStatusAndScheduledTimeBefore(PostStatus.SCHEDULED, Instant.now());
-    for (BlogPost post : postsToPublish) {
-      post.setStatus(PostStatus.PUBLISHED);
-      post.setScheduledTime(null);
-      if (post.getUrlArticleId() == null) {
-        post.setUrlArticleId(generateUrlArticleId(post));
-      }
-      blogPostRepository.save(post);
-
-      try {
-        messagePublisher.publishSearchIndexEvent(post.getId(), "INDEX");
-        logger.info("Published scheduled post with ID: {}", post.getId());
-      } catch (Exception e) {
-        logger.error("Failed to publish index event for scheduled post: {}", post.getId(), e);
-      }
-    }
-    if (!postsToPublish.isEmpty()) {
-      try {
-        messagePublisher.publishSitemapRegenerateEvent();
-      } catch (Exception e) {
-        logger.error("Failed to publish sitemap regeneration event", e);
-      }
-    }
+    // Due posts are claimed with a row lock by the publisher, so replicas never double-publish
+    int published = scheduledPostPublisher.publishDuePosts();
+    if (published > 0) logger.info("Published {} scheduled post(s)", published);
   }
 
   @Override
@@ -314,37 +314,6 @@ public class BlogPostServiceImpl implements BlogPostService {
     return blogPostRepository.findAllByStatusOrderByCreatedAtDesc(status);
   }
 
-  @Override
-  @Transactional
-  public int backfillSlugs() {
-    List<BlogPost> posts = blogPostRepository.findAll();
-    int count = 0;
-    for (BlogPost post : posts) {
-      if (post.getUserFriendlySlug() == null || post.getUserFriendlySlug().isEmpty()) {
-        post.setUserFriendlySlug(generateUserFriendlySlug(post.getTitle()));
-        blogPostRepository.save(post);
-        count++;
-      }
-    }
-    return count;
-  }
-
-  @Override
-  @Transactional
-  public int backfillUrlArticleIds() {
-    List<BlogPost> posts = blogPostRepository.findAll();
-    int count = 0;
-    for (BlogPost post : posts) {
-      if ((post.getStatus() == PostStatus.PUBLISHED || post.getStatus() == PostStatus.SCHEDULED)
-          && post.getUrlArticleId() == null) {
-        post.setUrlArticleId(generateUrlArticleId(post));
-        blogPostRepository.save(post);
-        count++;
-      }
-    }
-    return count;
-  }
-
   @Override
   @Transactional
   public BlogPost duplicatePost(Long id) {
@@ -0,0 +1,38 @@
+package com.treishvaam.financeapi.service;
+
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process LRU bounded by the total size of its values rather than their count. A value larger
+ * than 1/8 of the bound is not cached, so one big entry cannot flush everything else.
+ */
+final class ByteBoundedLruCache<V> {
+
+  private final long maxBytes;
+  private final ToLongFunction<V> sizeOf;
+  private final LinkedHashMap<String, V> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private long bytes;
+
+  ByteBoundedLruCache(long maxBytes, ToLongFunction<V> sizeOf) {
+    this.maxBytes = maxBytes;
+    this.sizeOf = sizeOf;
+  }
+
+  synchronized V get(String key) {
+    return entries.get(key);
+  }
+
+  synchronized void put(String key, V value) {
+    long size = sizeOf.applyAsLong(value);
+    if (size > maxBytes / 8) return;
+    V previous = entries.put(key, value);
+    if (previous != null) bytes -= sizeOf.applyAsLong(previous);
+    bytes += size;
+    var eldest = entries.values().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      bytes -= sizeOf.applyAsLong(eldest.next());
+      eldest.remove();
+    }
+  }
+}
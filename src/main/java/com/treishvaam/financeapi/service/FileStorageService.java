@@ -1,14 +1,37 @@
 package com.treishvaam.financeapi.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
 import io.minio.PutObjectArgs;
+import io.minio.Result;
 import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.UploadObjectArgs;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.Item;
 import jakarta.annotation.PostConstruct;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,7 +43,16 @@ import org.springframework.web.multipart.MultipartFile;
 public class FileStorageService {
 
   private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+  private static final long MULTIPART_PART_SIZE = 10485760;
+
+  // Prefixes under which stored objects are linked, longest first
+  private static final List<String> URL_PREFIXES =
+      List.of("/api/v1/uploads/", "/api/uploads/", "/uploads/");
+  private static final String LEGACY_HOST = "https://backend.treishvaamgroup.com";
+
   private final MinioClient minioClient;
+  private final ObjectMetadataCache metadataCache;
+  private final MeterRegistry meterRegistry;
 
   @Value("${minio.bucket-name}")
   private String bucketName;
@@ -28,8 +60,18 @@ public class FileStorageService {
   @Value("${storage.s3.endpoint}")
   private String endpoint;
 
-  public FileStorageService(MinioClient minioClient) {
+  public record StoredObject(
+      String name, long size, String etag, String contentType, Instant lastModified) {}
+
+  public FileStorageService(
+      MinioClient minioClient,
+      MeterRegistry meterRegistry,
+      @Value("${app.storage.metadata-cache.ttl-minutes:60}") long metadataTtlMinutes,
+      @Value("${app.storage.metadata-cache.max-entries:10000}") int metadataMaxEntries) {
     this.minioClient = minioClient;
+    this.meterRegistry = meterRegistry;
+    this.metadataCache =
+        new ObjectMetadataCache(Duration.ofMinutes(metadataTtlMinutes), metadataMaxEntries);
   }
 
   @PostConstruct
@@ -51,20 +93,40 @@ public class FileStorageService {
   public String storeFile(MultipartFile file) {
     try {
       String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-      InputStream inputStream = file.getInputStream();
-      return storeFile(inputStream, fileName, file.getContentType());
+      try (InputStream inputStream = file.getInputStream()) {
+        return storeFile(inputStream, file.getSize(), fileName, file.getContentType());
+      }
     } catch (Exception e) {
       throw new RuntimeException("Could not store file " + file.getOriginalFilename(), e);
     }
   }
 
   public String storeFile(InputStream inputStream, String fileName, String contentType) {
+    return storeFile(inputStream, -1, fileName, contentType);
+  }
+
+  /**
+   * With a known {@code size} the client sends the object as it reads it; only an unknown size (-1)
+   * falls back to buffering 10MB parts for a multipart upload.
+   */
+  public String storeFile(InputStream inputStream, long size, String fileName, String contentType) {
     try {
-      minioClient.putObject(
-          PutObjectArgs.builder().bucket(bucketName).object(fileName).stream(
-                  inputStream, -1, 10485760)
-              .contentType(contentType)
-              .build());
+      ObjectWriteResponse written =
+          timed(
+              "put",
+              () ->
+                  minioClient.putObject(
+                      PutObjectArgs.builder().bucket(bucketName).object(fileName).stream(
+                              inputStream, size, size >= 0 ? -1 : MULTIPART_PART_SIZE)
+                          .contentType(contentType)
+                          .build()));
+      // Without the size there is nothing to remember, but an entry for a previous object under
+      // this name would now be wrong
+      if (size >= 0) {
+        remember(written, size, contentType);
+      } else {
+        metadataCache.evict(fileName);
+      }
 
       // STANDARD: Return clean relative path. Frontend will prepend domain.
       return "/api/uploads/" + fileName;
@@ -74,35 +136,207 @@ public class FileStorageService {
     }
   }
 
-  // Robust File Size Check
+  /** Uploads a local file, read part by part from disk rather than buffered on the heap. */
+  public String storeFile(Path file, String fileName, String contentType) {
+    try {
+      long size = Files.size(file);
+      ObjectWriteResponse written =
+          timed(
+              "put",
+              () ->
+                  minioClient.uploadObject(
+                      UploadObjectArgs.builder()
+                          .bucket(bucketName)
+                          .object(fileName)
+                          .filename(file.toString())
+                          .contentType(contentType)
+                          .build()));
+      remember(written, size, contentType);
+      return "/api/uploads/" + fileName;
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to store file: " + fileName, e);
+    }
+  }
+
+  // Writes this node made are known without asking MinIO again
+  private void remember(ObjectWriteResponse written, long size, String contentType) {
+    metadataCache.put(
+        new StoredObject(
+            written.object(),
+            size,
+            written.etag(),
+            contentType,
+            Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+  }
+
+  /** Size of the object behind an upload URL or path; -1 if it is missing or unreadable. */
   public long getFileSize(String path) {
     try {
-      // Remove prefixes to find object in MinIO
-      String objectName =
-          path.replace("https://backend.treishvaamgroup.com", "")
-              .replace("/api/v1/uploads/", "")
-              .replace("/api/uploads/", "")
-              .replace("/uploads/", "");
-
-      return minioClient
-          .statObject(StatObjectArgs.builder().bucket(bucketName).object(objectName).build())
-          .size();
+      return stat(objectName(path)).map(StoredObject::size).orElse(-1L);
     } catch (Exception e) {
       return -1;
     }
   }
 
+  /**
+   * {@link #getFileSize} for many paths at once: cached entries are answered directly and the
+   * misses are stat'ed in parallel.
+   *
+   * @return size per path, -1 for missing objects
+   */
+  public Map<String, Long> getFileSizes(Collection<String> paths) {
+    Map<String, Long> sizes = new ConcurrentHashMap<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (String path : new HashSet<>(paths)) {
+        StoredObject cached = metadataCache.get(objectName(path));
+        if (cached != null) {
+          sizes.put(path, cached.size());
+        } else {
+          executor.execute(() -> sizes.put(path, getFileSize(path)));
+        }
+      }
+    }
+    return sizes;
+  }
+
+  // Upload URLs, absolute or relative, to the object name in the bucket
+  static String objectName(String path) {
+    String name = path.startsWith(LEGACY_HOST) ? path.substring(LEGACY_HOST.length()) : path;
+    for (String prefix : URL_PREFIXES) {
+      if (name.startsWith(prefix)) return name.substring(prefix.length());
+    }
+    return name;
+  }
+
+  /**
+   * Size, ETag and content type of an object; empty if it does not exist. Served from the metadata
+   * cache when the object was seen recently.
+   */
+  public Optional<StoredObject> stat(String objectName) {
+    StoredObject cached = metadataCache.get(objectName);
+    if (cached != null) return Optional.of(cached);
+    try {
+      StatObjectResponse stat =
+          timed(
+              "stat",
+              () ->
+                  minioClient.statObject(
+                      StatObjectArgs.builder().bucket(bucketName).object(objectName).build()));
+      StoredObject stored =
+          new StoredObject(
+              objectName,
+              stat.size(),
+              stat.etag(),
+              stat.contentType(),
+              stat.lastModified() != null ? stat.lastModified().toInstant() : null);
+      metadataCache.put(stored);
+      return Optional.of(stored);
+    } catch (ErrorResponseException e) {
+      if ("NoSuchKey".equals(e.errorResponse().code())) return Optional.empty();
+      throw new RuntimeException("Failed to stat " + objectName, e);
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to stat " + objectName, e);
+    }
+  }
+
+  /** Opens an object for reading; the caller closes the stream. */
+  public InputStream openObject(String objectName) {
+    try {
+      return timed(
+          "get",
+          () ->
+              minioClient.getObject(
+                  GetObjectArgs.builder().bucket(bucketName).object(objectName).build()));
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to read " + objectName, e);
+    }
+  }
+
+  /** Opens {@code length} bytes of an object starting at {@code offset}; the caller closes it. */
+  public InputStream openObject(String objectName, long offset, long length) {
+    try {
+      return timed(
+          "get",
+          () ->
+              minioClient.getObject(
+                  GetObjectArgs.builder()
+                      .bucket(bucketName)
+                      .object(objectName)
+                      .offset(offset)
+                      .length(length)
+                      .build()));
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to read " + objectName, e);
+    }
+  }
+
+  /** First object (in key order) whose name starts with {@code prefix}. */
+  public Optional<String> findFirstObject(String prefix) {
+    try {
+      // The listing is lazy: the request happens while iterating
+      return timed(
+          "list",
+          () -> {
+            for (Result<Item> result :
+                minioClient.listObjects(
+                    ListObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .prefix(prefix)
+                        .maxKeys(1)
+                        .build())) {
+              return Optional.of(result.get().objectName());
+            }
+            return Optional.<String>empty();
+          });
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to list " + prefix, e);
+    }
+  }
+
   public String getPresignedUrl(String objectName) {
     try {
-      return minioClient.getPresignedObjectUrl(
-          GetPresignedObjectUrlArgs.builder()
-              .method(Method.GET)
-              .bucket(bucketName)
-              .object(objectName)
-              .expiry(7, TimeUnit.DAYS)
-              .build());
+      return timed(
+          "presign",
+          () ->
+              minioClient.getPresignedObjectUrl(
+                  GetPresignedObjectUrlArgs.builder()
+                      .method(Method.GET)
+                      .bucket(bucketName)
+                      .object(objectName)
+                      .expiry(7, TimeUnit.DAYS)
+                      .build()));
     } catch (Exception e) {
       return null;
     }
   }
+
+  @FunctionalInterface
+  private interface StorageCall<T> {
+    T call() throws Exception;
+  }
+
+  /**
+   * Records {@code storage.requests} per operation and outcome (success, not_found, error), so
+   * storage latency shows up next to the image processing and messaging metrics.
+   */
+  private <T> T timed(String operation, StorageCall<T> call) throws Exception {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "error";
+    try {
+      T result = call.call();
+      outcome = "success";
+      return result;
+    } catch (ErrorResponseException e) {
+      if ("NoSuchKey".equals(e.errorResponse().code())) outcome = "not_found";
+      throw e;
+    } finally {
+      sample.stop(
+          Timer.builder("storage.requests")
+              .tag("operation", operation)
+              .tag("outcome", outcome)
+              .description("MinIO request latency")
+              .publishPercentiles(0.5, 0.95, 0.99)
+              .register(meterRegistry));
+    }
+  }
 }
@@ -0,0 +1,191 @@
+package com.treishvaam.financeapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared pool for CPU-heavy image work (decode, resize, encode).
+ *
+ * <p>One platform thread per core and a bounded queue, so concurrent uploads queue up instead of
+ * oversubscribing the CPU. Admission is also memory-aware: every task reserves its estimated heap
+ * cost (from the pixel count) against a budget, and a task that would exceed it is rejected up
+ * front rather than decoded into an OutOfMemoryError. A single task larger than the whole budget is
+ * still admitted when nothing else is running. {@link #submitAll} admits a batch as a whole, so a
+ * multi-file upload is either processed completely or rejected before any of it starts.
+ */
+@Component
+public class ImageProcessingExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(ImageProcessingExecutor.class);
+
+  // Decoded ARGB original, every rendition scaled from it (held until encoded) and decoder
+  // buffers; a 3000x2000 JPEG allocates 2.0x its ARGB size (see ImageUploadMemoryTest)
+  private static final double COST_FACTOR = 2.0;
+  private static final long COST_OVERHEAD_BYTES = 2L * 1024 * 1024;
+
+  private final ThreadPoolExecutor pool;
+  // Running plus queued tasks; bounds the pool's queue, which itself is unbounded so that a task
+  // admitted here is never refused by a full queue a worker has not drained yet
+  private final Semaphore slots;
+  private final long memoryBudgetBytes;
+  private final AtomicLong reservedBytes = new AtomicLong();
+  private final Timer processingTimer;
+  private final Timer queueWaitTimer;
+  private final Counter rejectedQueueFull;
+  private final Counter rejectedMemory;
+
+  public ImageProcessingExecutor(
+      MeterRegistry meterRegistry,
+      @Value("${app.images.processing.threads:0}") int threads,
+      @Value("${app.images.processing.queue-capacity:32}") int queueCapacity,
+      @Value("${app.images.processing.memory-budget-mb:0}") long memoryBudgetMb) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.pool =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            task ->
+                Thread.ofPlatform()
+                    .daemon()
+                    .name("image-processing-" + threadNumber.incrementAndGet())
+                    .unstarted(task),
+            new ThreadPoolExecutor.AbortPolicy());
+    this.slots = new Semaphore(poolSize + Math.max(1, queueCapacity));
+    // Default: a quarter of the max heap
+    this.memoryBudgetBytes =
+        memoryBudgetMb > 0 ? memoryBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 4;
+
+    Gauge.builder("images.processing.queue.depth", pool, p -> p.getQueue().size())
+        .description("Image tasks waiting for a processing thread")
+        .register(meterRegistry);
+    Gauge.builder("images.processing.active", pool, ThreadPoolExecutor::getActiveCount)
+        .register(meterRegistry);
+    Gauge.builder("images.processing.memory.reserved", reservedBytes, AtomicLong::get)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    this.processingTimer =
+        Timer.builder("images.processing.time")
+            .description("Decode, resize and encode time per image")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.queueWaitTimer =
+        Timer.builder("images.processing.queue.wait")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.rejectedQueueFull =
+        Counter.builder("images.processing.rejected")
+            .tag("reason", "queue_full")
+            .register(meterRegistry);
+    this.rejectedMemory =
+        Counter.builder("images.processing.rejected")
+            .tag("reason", "memory")
+            .register(meterRegistry);
+
+    logger.info(
+        "Image processing: {} thread(s), queue {}, memory budget {}MB",
+        poolSize,
+        queueCapacity,
+        memoryBudgetBytes / (1024 * 1024));
+  }
+
+  /** Estimated peak heap use of processing a {@code width} x {@code height} image. */
+  public static long estimateCost(int width, int height) {
+    return (long) ((long) width * height * 4 * COST_FACTOR) + COST_OVERHEAD_BYTES;
+  }
+
+  /**
+   * Queues {@code task}, reserving {@code costBytes} of the memory budget until it finishes.
+   *
+   * @throws ImageProcessingRejectedException if the queue is full or the budget is exhausted
+   */
+  public <T> CompletableFuture<T> submit(long costBytes, Callable<T> task) {
+    return submitAll(List.of(costBytes), List.of(task)).get(0);
+  }
+
+  /**
+   * Queues all {@code tasks} or none: queue slots and the summed memory cost are reserved for the
+   * whole batch before the first task is handed to the pool.
+   *
+   * @param costBytes estimated cost of each task, in the order of {@code tasks}
+   * @throws ImageProcessingRejectedException if the batch does not fit in the queue or the budget
+   */
+  public <T> List<CompletableFuture<T>> submitAll(
+      List<Long> costBytes, List<? extends Callable<T>> tasks) {
+    if (tasks.isEmpty()) return List.of();
+    if (!slots.tryAcquire(tasks.size())) {
+      rejectedQueueFull.increment();
+      throw new ImageProcessingRejectedException("Image processing queue is full");
+    }
+    long total = costBytes.stream().mapToLong(Long::longValue).sum();
+    if (!reserve(total)) {
+      slots.release(tasks.size());
+      rejectedMemory.increment();
+      throw new ImageProcessingRejectedException("Image processing memory budget exhausted");
+    }
+    List<CompletableFuture<T>> results = new ArrayList<>(tasks.size());
+    for (int i = 0; i < tasks.size(); i++) {
+      results.add(execute(costBytes.get(i), tasks.get(i)));
+    }
+    return results;
+  }
+
+  // Slot and reservation are already held; both are returned when the task ends
+  private <T> CompletableFuture<T> execute(long costBytes, Callable<T> task) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    long queuedAt = System.nanoTime();
+    pool.execute(
+        () -> {
+          queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+          long started = System.nanoTime();
+          T value = null;
+          Throwable failure = null;
+          try {
+            value = task.call();
+          } catch (Throwable e) {
+            failure = e;
+          } finally {
+            processingTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            reservedBytes.addAndGet(-costBytes);
+            slots.release();
+          }
+          // Completed only after the capacity is returned, so a caller that waited can reuse it
+          if (failure != null) result.completeExceptionally(failure);
+          else result.complete(value);
+        });
+    return result;
+  }
+
+  private boolean reserve(long costBytes) {
+    while (true) {
+      long current = reservedBytes.get();
+      if (current > 0 && current + costBytes > memoryBudgetBytes) return false;
+      if (reservedBytes.compareAndSet(current, current + costBytes)) return true;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdown();
+  }
+}
@@ -0,0 +1,22 @@
+package com.treishvaam.financeapi.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Image processing is at capacity; surfaces as 503 with a Retry-After hint. */
+public class ImageProcessingRejectedException extends ResponseStatusException {
+
+  private static final String RETRY_AFTER_SECONDS = "5";
+
+  public ImageProcessingRejectedException(String reason) {
+    super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+    return headers;
+  }
+}
@@ -0,0 +1,164 @@
+package com.treishvaam.financeapi.service;
+
+import com.treishvaam.financeapi.model.ImageRenditionJob;
+import com.treishvaam.financeapi.repository.ImageRenditionJobRepository;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of background rendition jobs in {@code image_rendition_jobs}, keyed by the image's base
+ * filename, so a status poll can land on any node. Finished jobs are kept for {@code
+ * app.images.jobs.retention-minutes} so editors can poll the outcome.
+ *
+ * <p>Each unfinished job is claimed by the node running it, which touches it on every attempt. A
+ * node resumes its own unfinished jobs when it starts, and any node takes over a job whose claim
+ * has not been touched for {@code app.images.jobs.stale-after-minutes}.
+ */
+@Component
+public class ImageRenditionJobs {
+
+  private static final Logger logger = LoggerFactory.getLogger(ImageRenditionJobs.class);
+
+  public static final String QUEUED = "QUEUED";
+  public static final String PROCESSING = "PROCESSING";
+  public static final String COMPLETED = "COMPLETED";
+  public static final String FAILED = "FAILED";
+
+  private static final int MAX_ERROR_LENGTH = 1024;
+
+  /**
+   * @param renditions URLs of the renditions, available once {@code COMPLETED}
+   * @param attempts how often the job was offered to the image executor (it retries while full)
+   */
+  public record Status(
+      String jobId,
+      String state,
+      List<String> renditions,
+      int attempts,
+      String error,
+      Instant createdAt,
+      Instant finishedAt) {}
+
+  /** An unfinished job this node has taken over, to be processed again from its original. */
+  record Claimed(String jobId, String originalName) {}
+
+  private final ImageRenditionJobRepository repository;
+  private final String nodeId;
+
+  @Value("${app.images.jobs.retention-minutes:60}")
+  private long retentionMinutes;
+
+  @Value("${app.images.jobs.stale-after-minutes:10}")
+  private long staleAfterMinutes;
+
+  public ImageRenditionJobs(
+      ImageRenditionJobRepository repository, @Value("${app.images.jobs.node-id:}") String nodeId) {
+    this.repository = repository;
+    this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+  }
+
+  // Stable across restarts of the same container, which lets a node resume its own jobs at once
+  private static String defaultNodeId() {
+    String hostname = System.getenv("HOSTNAME");
+    if (hostname != null && !hostname.isBlank()) return hostname;
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return UUID.randomUUID().toString();
+    }
+  }
+
+  public Optional<Status> get(String jobId) {
+    return repository.findById(jobId).map(ImageRenditionJobs::toStatus);
+  }
+
+  void queued(String jobId, String originalName) {
+    repository.save(new ImageRenditionJob(jobId, QUEUED, originalName, nodeId));
+  }
+
+  /** An upload matched existing renditions: the job is complete from the start. */
+  void reused(String jobId) {
+    ImageRenditionJob job = new ImageRenditionJob(jobId, COMPLETED, null, nodeId);
+    job.setFinishedAt(job.getCreatedAt());
+    repository.save(job);
+  }
+
+  /** Counts an offer to the image executor; also keeps this node's claim fresh. */
+  void offered(String jobId) {
+    repository.incrementAttempts(jobId, Instant.now());
+  }
+
+  void processing(String jobId) {
+    update(jobId, PROCESSING, null);
+  }
+
+  void completed(String jobId) {
+    update(jobId, COMPLETED, null);
+  }
+
+  void failed(String jobId, String error) {
+    if (error != null && error.length() > MAX_ERROR_LENGTH) {
+      error = error.substring(0, MAX_ERROR_LENGTH);
+    }
+    update(jobId, FAILED, error);
+  }
+
+  private void update(String jobId, String state, String error) {
+    Instant now = Instant.now();
+    boolean finished = COMPLETED.equals(state) || FAILED.equals(state);
+    repository.updateState(jobId, state, error, now, finished ? now : null);
+  }
+
+  /**
+   * Claims unfinished jobs to resume here: those left by this node before a restart when {@code
+   * includeOwn}, and those of any node that stopped touching them.
+   *
+   * @param running jobs this node is working on right now, never claimed again
+   */
+  List<Claimed> claimOrphans(boolean includeOwn, Set<String> running) {
+    Instant now = Instant.now();
+    Instant staleBefore = now.minus(Duration.ofMinutes(staleAfterMinutes));
+    List<Claimed> claimed = new ArrayList<>();
+    for (ImageRenditionJob job : repository.findByStateIn(List.of(QUEUED, PROCESSING))) {
+      if (running.contains(job.getJobId())) continue;
+      boolean own = includeOwn && nodeId.equals(job.getClaimedBy());
+      if (!own && !job.getUpdatedAt().isBefore(staleBefore)) continue;
+      if (repository.claim(job.getJobId(), nodeId, job.getUpdatedAt(), now) == 1) {
+        logger.info(
+            "Resuming rendition job {} (claimed by {}, last touched {})",
+            job.getJobId(),
+            job.getClaimedBy(),
+            job.getUpdatedAt());
+        claimed.add(new Claimed(job.getJobId(), job.getOriginalName()));
+      }
+    }
+    return claimed;
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public void expireFinished() {
+    repository.deleteFinishedBefore(Instant.now().minus(Duration.ofMinutes(retentionMinutes)));
+  }
+
+  private static Status toStatus(ImageRenditionJob job) {
+    return new Status(
+        job.getJobId(),
+        job.getState(),
+        COMPLETED.equals(job.getState()) ? ImageService.renditionUrls(job.getJobId()) : List.of(),
+        job.getAttempts(),
+        job.getError(),
+        job.getCreatedAt(),
+        job.getFinishedAt());
+  }
+}
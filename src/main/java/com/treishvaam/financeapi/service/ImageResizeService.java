@@ -0,0 +1,226 @@
+package com.treishvaam.financeapi.service;
+
+import com.treishvaam.financeapi.service.FileStorageService.StoredObject;
+import com.treishvaam.financeapi.service.ImageService.ImageHeader;
+import jakarta.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lazily produced image renditions for {@code /api/v1/img/{name}}.
+ *
+ * <p>Lookup order: in-process LRU of hot renditions, then MinIO under a content-addressed key (hash
+ * of the source object's ETag and the rendition parameters), then generation from the upload's
+ * master on the shared {@link ImageProcessingExecutor}. Concurrent requests for the same rendition
+ * share one generation, and since the key only changes with the source content, each size is
+ * produced once and can be cached forever by clients.
+ */
+@Service
+public class ImageResizeService {
+
+  public static final String KEY_PREFIX = "renditions/";
+
+  private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+  private static final int DEFAULT_QUALITY = 80;
+
+  /** Normalized rendition parameters; also the cache key. */
+  public record Request(String name, int width, int quality, String format) {
+
+    String key() {
+      return name + "|" + width + "|" + quality + "|" + format;
+    }
+  }
+
+  public record Rendition(byte[] bytes, String contentType) {}
+
+  private final FileStorageService fileStorageService;
+  private final ImageProcessingExecutor imageProcessingExecutor;
+  private final RenditionEncoder renditionEncoder;
+  private final StorageUploadDispatcher uploadDispatcher;
+  private final List<Integer> widths;
+  private final ByteBoundedLruCache<Rendition> cache;
+  private final long spoolThresholdKb;
+  private final Map<String, CompletableFuture<Rendition>> inFlight = new ConcurrentHashMap<>();
+  private final ExecutorService storageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ImageResizeService(
+      FileStorageService fileStorageService,
+      ImageProcessingExecutor imageProcessingExecutor,
+      RenditionEncoder renditionEncoder,
+      StorageUploadDispatcher uploadDispatcher,
+      @Value("${app.images.resize.widths:160,320,480,640,800,1024,1200,1600,1920}")
+          List<Integer> widths,
+      @Value("${app.images.resize.cache-mb:64}") long cacheMb,
+      @Value("${app.images.spool-threshold-kb:512}") long spoolThresholdKb) {
+    this.fileStorageService = fileStorageService;
+    this.spoolThresholdKb = spoolThresholdKb;
+    this.imageProcessingExecutor = imageProcessingExecutor;
+    this.renditionEncoder = renditionEncoder;
+    this.uploadDispatcher = uploadDispatcher;
+    this.widths = widths.stream().sorted().toList();
+    this.cache =
+        new ByteBoundedLruCache<>(cacheMb * 1024 * 1024, rendition -> rendition.bytes().length);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    storageExecutor.shutdown();
+  }
+
+  /**
+   * Validates and snaps the parameters: the width is rounded up to the configured ladder and the
+   * quality to a multiple of 5, so arbitrary values cannot mint unbounded variants. Without an
+   * explicit format the best one named in {@code accept} is used.
+   *
+   * @throws IllegalArgumentException if the name is not a plain upload name
+   */
+  public Request normalize(
+      String name, Integer width, Integer quality, String format, String accept) {
+    if (name == null || !NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid image name");
+    }
+    int maxWidth = widths.get(widths.size() - 1);
+    int requested = width != null && width > 0 ? width : maxWidth;
+    int snapped = widths.stream().filter(w -> w >= requested).findFirst().orElse(maxWidth);
+    int q = quality != null ? Math.max(30, Math.min(95, quality)) : DEFAULT_QUALITY;
+    q = Math.round(q / 5f) * 5;
+    String outputFormat =
+        format != null ? outputFormat(format) : renditionEncoder.negotiate(accept);
+    return new Request(name, snapped, q, outputFormat);
+  }
+
+  /** Strong validator, derivable from the request alone because uploads are never overwritten. */
+  public String etag(Request request) {
+    return "\"" + sha256(request.key()).substring(0, 32) + "\"";
+  }
+
+  /** Completes with {@link NoSuchElementException} if the upload does not exist. */
+  public CompletableFuture<Rendition> get(Request request) {
+    Rendition cached = cache.get(request.key());
+    if (cached != null) return CompletableFuture.completedFuture(cached);
+
+    CompletableFuture<Rendition> created = new CompletableFuture<>();
+    CompletableFuture<Rendition> existing = inFlight.putIfAbsent(request.key(), created);
+    if (existing != null) return existing;
+
+    CompletableFuture.supplyAsync(() -> load(request), storageExecutor)
+        .whenComplete(
+            (rendition, error) -> {
+              inFlight.remove(request.key(), created);
+              if (error != null) {
+                created.completeExceptionally(error.getCause() != null ? error.getCause() : error);
+              } else {
+                cache.put(request.key(), rendition);
+                created.complete(rendition);
+              }
+            });
+    return created;
+  }
+
+  private Rendition load(Request request) {
+    StoredObject source =
+        resolveSource(request.name())
+            .orElseThrow(() -> new NoSuchElementException("No image " + request.name()));
+    String contentType = "image/" + request.format();
+    String key =
+        KEY_PREFIX
+            + sha256(source.etag() + "|" + request.width() + "|" + request.quality())
+            + "."
+            + request.format();
+
+    if (fileStorageService.stat(key).isPresent()) {
+      return new Rendition(readAll(key), contentType);
+    }
+
+    byte[] encoded;
+    try (SpooledImage sourceImage = spool(source)) {
+      ImageHeader header = ImageService.probe(sourceImage);
+      encoded =
+          imageProcessingExecutor
+              .submit(
+                  ImageProcessingExecutor.estimateCost(header.width(), header.height()),
+                  () -> render(sourceImage, request).toByteArray())
+              .join();
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreadable source image " + source.name(), e);
+    }
+    uploadDispatcher
+        .submit(
+            key,
+            () ->
+                fileStorageService.storeFile(
+                    new ByteArrayInputStream(encoded), encoded.length, key, contentType))
+        .join();
+    return new Rendition(encoded, contentType);
+  }
+
+  // Originals of async uploads can be large: past the threshold they are read from a temp file
+  private SpooledImage spool(StoredObject source) throws IOException {
+    try (InputStream in = fileStorageService.openObject(source.name())) {
+      return SpooledImage.of(in, source.size(), spoolThresholdKb * 1024);
+    }
+  }
+
+  // The untouched original when it was kept (async uploads), otherwise the 1920w master, stored
+  // under its format's extension or the legacy .webp
+  private Optional<StoredObject> resolveSource(String name) {
+    Optional<String> original = fileStorageService.findFirstObject(name + "-original.");
+    if (original.isEmpty()) original = fileStorageService.findFirstObject(name + ".");
+    return original.flatMap(fileStorageService::stat);
+  }
+
+  private ByteArrayOutputStream render(SpooledImage source, Request request) throws IOException {
+    BufferedImage image =
+        ImageService.scaleToWidth(
+            ImageService.decode(source, new ImageService.ImageMetadataDto()), request.width());
+    return renditionEncoder.encode(image, request.format(), request.quality() / 100.0);
+  }
+
+  private byte[] readAll(String objectName) {
+    try (InputStream in = fileStorageService.openObject(objectName)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read " + objectName, e);
+    }
+  }
+
+  private String outputFormat(String requested) {
+    String format = requested.toLowerCase(Locale.ROOT);
+    if ("jpg".equals(format)) format = "jpeg";
+    if (!Arrays.asList("avif", "webp", "png", "jpeg").contains(format)) {
+      throw new IllegalArgumentException("Unsupported format " + requested);
+    }
+    // Without an encoder for the requested format, JPEG is the smallest thing ImageIO can write
+    return renditionEncoder.supports(format) ? format : "jpeg";
+  }
+
+  private static String sha256(String value) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
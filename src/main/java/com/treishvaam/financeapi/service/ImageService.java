@@ -1,23 +1,44 @@
 package com.treishvaam.financeapi.service;
 
+import com.treishvaam.financeapi.model.ImageAsset;
+import com.treishvaam.financeapi.repository.ImageAssetRepository;
+import com.treishvaam.financeapi.service.RenditionEncoder.EncodedBuffer;
 import io.trbl.blurhash.BlurHash;
-import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.ExifUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -28,9 +49,66 @@ public class ImageService {
   private final FileStorageService fileStorageService;
   private final ResourceLoader resourceLoader;
 
-  public ImageService(FileStorageService fileStorageService, ResourceLoader resourceLoader) {
+  // --- PHASE 16: Enterprise Responsive Strategy ---
+  // Largest first: each width is scaled from the one before it. Quality is the ceiling; busy
+  // images get less so that the rendition fits its byte budget
+  private record Rendition(int width, String suffix, double quality, int budgetKb) {}
+
+  private static final List<Rendition> RENDITIONS =
+      List.of(
+          new Rendition(1920, "", 0.90, 350), // Master
+          new Rendition(1200, "-1200", 0.85, 180), // Standard Desktop
+          new Rendition(800, "-800", 0.80, 90), // Tablet/Small Laptop
+          new Rendition(480, "-480", 0.80, 40)); // Mobile
+
+  private static final int BLURHASH_SIZE = 32;
+
+  private record EncodedRendition(String filename, EncodedBuffer bytes, String contentType) {}
+
+  private record ProcessedImage(ImageMetadataDto metadata, List<EncodedRendition> renditions) {}
+
+  // A file of a synchronous batch that passed probing, at its position in the request
+  private record Admitted(int position, SpooledImage image, String baseFilename, long cost) {}
+
+  private static final int MAX_JOB_ATTEMPTS = 20;
+
+  private final ImageProcessingExecutor imageProcessingExecutor;
+  private final ImageRenditionJobs renditionJobs;
+  private final TaskScheduler taskScheduler;
+  private final ImageAssetRepository imageAssetRepository;
+  private final RenditionEncoder renditionEncoder;
+  private final StorageUploadDispatcher uploadDispatcher;
+
+  @Value("${app.images.async-renditions:false}")
+  private boolean asyncRenditions;
+
+  @Value("${app.images.spool-threshold-kb:512}")
+  private long spoolThresholdKb;
+
+  // Async jobs this node is working on, so the stale-job sweep never claims them back
+  private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+  // Orchestration and reads; the CPU-bound part runs on imageProcessingExecutor and puts go through
+  // uploadDispatcher
+  private final ExecutorService storageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ImageService(
+      FileStorageService fileStorageService,
+      ResourceLoader resourceLoader,
+      ImageProcessingExecutor imageProcessingExecutor,
+      ImageRenditionJobs renditionJobs,
+      TaskScheduler taskScheduler,
+      ImageAssetRepository imageAssetRepository,
+      RenditionEncoder renditionEncoder,
+      StorageUploadDispatcher uploadDispatcher) {
     this.fileStorageService = fileStorageService;
     this.resourceLoader = resourceLoader;
+    this.imageProcessingExecutor = imageProcessingExecutor;
+    this.renditionJobs = renditionJobs;
+    this.taskScheduler = taskScheduler;
+    this.imageAssetRepository = imageAssetRepository;
+    this.renditionEncoder = renditionEncoder;
+    this.uploadDispatcher = uploadDispatcher;
   }
 
   public static class ImageMetadataDto {
@@ -81,144 +159,524 @@ public class ImageService {
     }
   }
 
-  @PostConstruct
-  public void init() {
-    try {
-      logger.info("Scanning for ImageIO plugins (WebP support)...");
-      ImageIO.scanForPlugins();
-      logger.info("ImageIO plugins registered successfully.");
-    } catch (Exception e) {
-      logger.error("Failed to scan ImageIO plugins", e);
-    }
+  @PreDestroy
+  public void shutdown() {
+    storageExecutor.shutdown();
   }
 
-  public ImageMetadataDto saveImageAndGetMetadata(MultipartFile file) {
-    if (file == null || file.isEmpty()) {
-      return null;
+  /**
+   * Processes several uploads concurrently on the shared {@link ImageProcessingExecutor}. In async
+   * mode ({@code app.images.async-renditions}) only the original is stored before returning. A file
+   * whose bytes were uploaded before gets the existing renditions back without being decoded.
+   *
+   * @return metadata in the same order as {@code files} ({@code null} for empty files)
+   * @throws ImageProcessingRejectedException if image processing is at capacity (HTTP 503)
+   */
+  public List<ImageMetadataDto> saveImagesAndGetMetadata(List<MultipartFile> files) {
+    return saveImagesAndGetMetadata(files, asyncRenditions);
+  }
+
+  public List<ImageMetadataDto> saveImagesAndGetMetadata(List<MultipartFile> files, boolean async) {
+    if (files == null || files.isEmpty()) return List.of();
+
+    List<CompletableFuture<ImageMetadataDto>> futures;
+    if (async) {
+      futures = new ArrayList<>(files.size());
+      for (MultipartFile file : files) {
+        futures.add(
+            file == null || file.isEmpty()
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> saveAsync(file), storageExecutor));
+      }
+    } else {
+      futures = saveSync(files);
     }
+    List<ImageMetadataDto> results = new ArrayList<>(files.size());
     try {
-      byte[] imageBytes = file.getBytes();
-      ImageMetadataDto metadata = extractMetadata(imageBytes);
+      for (CompletableFuture<ImageMetadataDto> future : futures) {
+        results.add(future.join());
+      }
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) throw re;
+      throw new RuntimeException("Failed to save uploaded images", e.getCause());
+    }
+    return results;
+  }
 
-      String baseFilename = UUID.randomUUID().toString();
-      metadata.setBaseFilename(baseFilename);
+  public ImageMetadataDto saveImageAndGetMetadata(MultipartFile file) {
+    return saveImagesAndGetMetadata(Collections.singletonList(file)).get(0);
+  }
 
-      // --- PHASE 16: Enterprise Responsive Strategy ---
-      String masterName = baseFilename + ".webp"; // 1920w (Master)
-      String desktopName = baseFilename + "-1200.webp"; // 1200w (Standard Desktop)
-      String tabletName = baseFilename + "-800.webp"; // 800w (Tablet/Small Laptop)
-      String mobileName = baseFilename + "-480.webp"; // 480w (Mobile)
+  public ImageMetadataDto saveImageAndGetMetadata(MultipartFile file, boolean async) {
+    return saveImagesAndGetMetadata(Collections.singletonList(file), async).get(0);
+  }
 
-      // Use Virtual Threads for high-throughput parallel processing
-      try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-        var futures =
-            new CompletableFuture<?>[] {
-              // Master: High Quality (0.90), Max Width 1920
-              CompletableFuture.runAsync(
-                  () -> uploadResizedSafe(imageBytes, 1920, masterName, 0.90), executor),
+  /**
+   * Object names of the renditions of {@code baseFilename} encoded as {@code format}, largest
+   * first. Uploads from before per-format names are stored as {@code .webp} whatever their bytes.
+   */
+  public static List<String> renditionNames(String baseFilename, String format) {
+    String extension = "jpeg".equals(format) ? "jpg" : format;
+    return RENDITIONS.stream().map(r -> baseFilename + r.suffix() + "." + extension).toList();
+  }
 
-              // Desktop: Good Quality (0.85), Max Width 1200
-              CompletableFuture.runAsync(
-                  () -> uploadResizedSafe(imageBytes, 1200, desktopName, 0.85), executor),
+  /**
+   * Public URLs of the renditions of {@code baseFilename}, largest first. They go through {@code
+   * /api/v1/img}, which picks the format per client, so they hold whatever format was stored.
+   */
+  public static List<String> renditionUrls(String baseFilename) {
+    return RENDITIONS.stream().map(r -> "/api/v1/img/" + baseFilename + "?w=" + r.width()).toList();
+  }
 
-              // Tablet: Standard Quality (0.80), Max Width 800
-              CompletableFuture.runAsync(
-                  () -> uploadResizedSafe(imageBytes, 800, tabletName, 0.80), executor),
+  /**
+   * Spools, deduplicates and probes every file before admitting any of them, then admits the batch
+   * as a whole. A 503 for one file therefore leaves nothing of the request running, and no
+   * renditions of the files before it are uploaded as orphans.
+   */
+  private List<CompletableFuture<ImageMetadataDto>> saveSync(List<MultipartFile> files) {
+    List<CompletableFuture<ImageMetadataDto>> results = new ArrayList<>(files.size());
+    List<Admitted> admitted = new ArrayList<>();
+    try {
+      for (MultipartFile file : files) {
+        if (file == null || file.isEmpty()) {
+          results.add(CompletableFuture.completedFuture(null));
+          continue;
+        }
+        SpooledImage image = spool(file);
+        try {
+          Optional<ImageMetadataDto> existing = findExisting(image.contentHash());
+          if (existing.isPresent()) {
+            image.close();
+            results.add(CompletableFuture.completedFuture(existing.get()));
+            continue;
+          }
+          ImageHeader header = probe(image);
+          // Owned by the batch from here: closed below on failure, by its task otherwise
+          admitted.add(
+              new Admitted(
+                  results.size(),
+                  image,
+                  UUID.randomUUID().toString(),
+                  ImageProcessingExecutor.estimateCost(header.width(), header.height())));
+          results.add(null);
+        } catch (IOException | RuntimeException e) {
+          image.close();
+          throw e;
+        }
+      }
+      List<CompletableFuture<ProcessedImage>> processing =
+          imageProcessingExecutor.submitAll(
+              admitted.stream().map(Admitted::cost).toList(),
+              admitted.stream()
+                  .map(a -> (Callable<ProcessedImage>) () -> process(a.image(), a.baseFilename()))
+                  .toList());
+      for (int i = 0; i < admitted.size(); i++) {
+        SpooledImage image = admitted.get(i).image();
+        results.set(
+            admitted.get(i).position(),
+            processing
+                .get(i)
+                .whenComplete((processed, error) -> image.close())
+                .thenApplyAsync(this::store, storageExecutor)
+                .thenApply(metadata -> remember(image.contentHash(), metadata)));
+      }
+      return results;
+    } catch (IOException e) {
+      admitted.forEach(a -> a.image().close());
+      logger.error("Failed to save uploaded image", e);
+      throw new RuntimeException("Failed to save uploaded image", e);
+    } catch (RuntimeException e) {
+      admitted.forEach(a -> a.image().close());
+      throw e;
+    }
+  }
 
-              // Mobile: Optimized (0.80), Max Width 480
-              CompletableFuture.runAsync(
-                  () -> uploadResizedSafe(imageBytes, 480, mobileName, 0.80), executor)
-            };
+  // The request's multipart file is gone once the response is sent, and async jobs outlive it
+  private SpooledImage spool(MultipartFile file) {
+    try {
+      return SpooledImage.of(file, spoolThresholdKb * 1024);
+    } catch (IOException e) {
+      logger.error("Failed to save uploaded image", e);
+      throw new RuntimeException("Failed to save uploaded image", e);
+    }
+  }
 
-        CompletableFuture.allOf(futures).join();
+  /**
+   * Stores the untouched original, answers with metadata from the header and a subsampled preview
+   * decode (for the BlurHash), and leaves the renditions to a background job polled via {@link
+   * ImageRenditionJobs}. Until the job completes only the original exists in storage.
+   */
+  private ImageMetadataDto saveAsync(MultipartFile file) {
+    SpooledImage image = spool(file);
+    try {
+      Optional<ImageMetadataDto> existing = findExisting(image.contentHash());
+      if (existing.isPresent()) {
+        image.close();
+        renditionJobs.reused(existing.get().getBaseFilename());
+        return existing.get();
       }
+      ImageHeader header = probe(image);
+      String baseFilename = UUID.randomUUID().toString();
 
+      ImageMetadataDto metadata = new ImageMetadataDto();
+      metadata.setBaseFilename(baseFilename);
+      metadata.setWidth(header.width());
+      metadata.setHeight(header.height());
+      metadata.setMimeType("image/" + header.format());
+      metadata.setBlurHash(blurHash(decodePreview(image)));
+
+      String original = originalName(baseFilename, header.format());
+      uploadDispatcher
+          .submit(
+              original, () -> image.storeTo(fileStorageService, original, metadata.getMimeType()))
+          .join();
+
+      // From here on the job owns the spooled image and closes it when it ends
+      renditionJobs.queued(baseFilename, original);
+      enqueueRenditions(
+          baseFilename,
+          image,
+          ImageProcessingExecutor.estimateCost(header.width(), header.height()));
       return metadata;
-
-    } catch (Exception e) {
+    } catch (IOException e) {
+      image.close();
       logger.error("Failed to save uploaded image", e);
       throw new RuntimeException("Failed to save uploaded image", e);
+    } catch (RuntimeException e) {
+      image.close();
+      throw e;
     }
   }
 
-  private void uploadResizedSafe(
-      byte[] originalBytes, int targetWidth, String filename, double quality) {
+  /**
+   * Metadata of an earlier upload with the same content hash. The master rendition must still
+   * exist; an entry whose objects are gone is dropped so the upload is processed again.
+   */
+  private Optional<ImageMetadataDto> findExisting(String contentHash) {
+    Optional<ImageAsset> asset = imageAssetRepository.findById(contentHash);
+    if (asset.isEmpty()) return Optional.empty();
+    String baseFilename = asset.get().getBaseFilename();
+    // The master is the only object named "<base>." whatever its extension
+    if (fileStorageService.findFirstObject(baseFilename + ".").isEmpty()) {
+      logger.warn("Renditions of {} are missing; processing the upload again", baseFilename);
+      imageAssetRepository.delete(asset.get());
+      return Optional.empty();
+    }
+    logger.debug("Upload {} matches {}; reusing its renditions", contentHash, baseFilename);
+    ImageMetadataDto metadata = new ImageMetadataDto();
+    metadata.setBaseFilename(baseFilename);
+    metadata.setWidth(asset.get().getWidth());
+    metadata.setHeight(asset.get().getHeight());
+    metadata.setMimeType(asset.get().getMimeType());
+    metadata.setBlurHash(asset.get().getBlurHash());
+    return Optional.of(metadata);
+  }
+
+  // Identical uploads processed concurrently both get stored; the first to finish is indexed
+  private ImageMetadataDto remember(String contentHash, ImageMetadataDto metadata) {
     try {
-      uploadResized(originalBytes, targetWidth, filename, quality);
-    } catch (IOException e) {
-      throw new RuntimeException("Async upload failed for " + filename, e);
+      if (!imageAssetRepository.existsById(contentHash)) {
+        imageAssetRepository.save(
+            new ImageAsset(
+                contentHash,
+                metadata.getBaseFilename(),
+                metadata.getWidth(),
+                metadata.getHeight(),
+                metadata.getMimeType(),
+                metadata.getBlurHash()));
+      }
+    } catch (DataAccessException e) {
+      logger.warn("Could not index image {}: {}", metadata.getBaseFilename(), e.getMessage());
     }
+    return metadata;
   }
 
-  private void uploadResized(byte[] originalBytes, int targetWidth, String filename, double quality)
-      throws IOException {
-    try (ByteArrayInputStream is = new ByteArrayInputStream(originalBytes);
-        ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+  public static String originalName(String baseFilename, String format) {
+    return baseFilename + "-original." + format;
+  }
 
-      try {
-        // --- PHASE 16 OPTIMIZATION ---
-        Thumbnails.of(is)
-            .width(targetWidth)
-            .outputQuality(quality)
-            .outputFormat("webp")
-            .toOutputStream(os);
+  // A full executor does not fail an async job: it is offered again with a growing delay
+  private void enqueueRenditions(String baseFilename, SpooledImage image, long cost) {
+    runningJobs.add(baseFilename);
+    try {
+      renditionJobs.offered(baseFilename);
+      imageProcessingExecutor
+          .submit(
+              cost,
+              () -> {
+                renditionJobs.processing(baseFilename);
+                return process(image, baseFilename);
+              })
+          .whenComplete((processed, error) -> image.close())
+          .thenApplyAsync(this::store, storageExecutor)
+          .whenComplete(
+              (metadata, error) -> {
+                runningJobs.remove(baseFilename);
+                if (error == null) {
+                  remember(image.contentHash(), metadata);
+                  renditionJobs.completed(baseFilename);
+                } else {
+                  logger.error("Rendition job {} failed", baseFilename, error);
+                  renditionJobs.failed(baseFilename, error.getMessage());
+                }
+              });
+    } catch (ImageProcessingRejectedException e) {
+      int attempts =
+          renditionJobs.get(baseFilename).map(ImageRenditionJobs.Status::attempts).orElse(0);
+      if (attempts >= MAX_JOB_ATTEMPTS) {
+        image.close();
+        runningJobs.remove(baseFilename);
+        renditionJobs.failed(baseFilename, e.getReason());
+        return;
+      }
+      long delayMs = Math.min(30_000L, 1000L << Math.min(attempts, 5));
+      taskScheduler.schedule(
+          () -> enqueueRenditions(baseFilename, image, cost), Instant.now().plusMillis(delayMs));
+    } catch (RuntimeException e) {
+      // E.g. the job table is unreachable: a restart or another node resumes it from the original
+      image.close();
+      runningJobs.remove(baseFilename);
+      throw e;
+    }
+  }
 
-        byte[] resizedBytes = os.toByteArray();
-        // FIXED: Using storeFile with ByteArrayInputStream instead of upload
-        fileStorageService.storeFile(
-            new ByteArrayInputStream(resizedBytes), filename, "image/webp");
+  /** Picks up the jobs this node left unfinished when it last stopped. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeOnStartup() {
+    Thread.ofVirtual().name("rendition-jobs-resume").start(() -> resumeJobs(true));
+  }
 
-      } catch (IllegalArgumentException e) {
-        // FALLBACK: If WebP fails, use PNG
-        logger.error("WebP not supported. Falling back to PNG for {}", filename);
-        is.reset();
-        os.reset();
+  /** Takes over jobs of nodes that stopped touching them, e.g. because they are gone. */
+  @Scheduled(
+      fixedDelayString = "${app.images.jobs.recovery-interval-ms:60000}",
+      initialDelayString = "${app.images.jobs.recovery-interval-ms:60000}")
+  public void resumeStaleJobs() {
+    resumeJobs(false);
+  }
 
-        Thumbnails.of(is).width(targetWidth).outputFormat("png").toOutputStream(os);
+  private void resumeJobs(boolean includeOwn) {
+    List<ImageRenditionJobs.Claimed> claimed;
+    try {
+      claimed = renditionJobs.claimOrphans(includeOwn, runningJobs);
+    } catch (DataAccessException e) {
+      logger.warn("Could not look for unfinished rendition jobs: {}", e.getMessage());
+      return;
+    }
+    for (ImageRenditionJobs.Claimed job : claimed) {
+      try {
+        resume(job);
+      } catch (Exception e) {
+        logger.error("Could not resume rendition job {}", job.jobId(), e);
+        runningJobs.remove(job.jobId());
+        renditionJobs.failed(job.jobId(), e.getMessage());
+      }
+    }
+  }
 
-        byte[] pngBytes = os.toByteArray();
-        // FIXED: Using storeFile with ByteArrayInputStream instead of upload
-        fileStorageService.storeFile(new ByteArrayInputStream(pngBytes), filename, "image/png");
+  // The stored original is the job's input: spool it back and queue it like a fresh upload
+  private void resume(ImageRenditionJobs.Claimed job) throws IOException {
+    String original = job.originalName();
+    Optional<FileStorageService.StoredObject> stored =
+        original != null ? fileStorageService.stat(original) : Optional.empty();
+    if (stored.isEmpty()) {
+      renditionJobs.failed(job.jobId(), "Original " + original + " is missing");
+      return;
+    }
+    SpooledImage image;
+    try (InputStream in = fileStorageService.openObject(original)) {
+      image = SpooledImage.of(in, stored.get().size(), spoolThresholdKb * 1024);
+    }
+    try {
+      ImageHeader header = probe(image);
+      enqueueRenditions(
+          job.jobId(),
+          image,
+          ImageProcessingExecutor.estimateCost(header.width(), header.height()));
+    } catch (IOException | RuntimeException e) {
+      image.close();
+      throw e;
+    }
+  }
+
+  private ProcessedImage process(SpooledImage image, String baseFilename) {
+    try {
+      long started = System.nanoTime();
+      ImageMetadataDto metadata = new ImageMetadataDto();
+      BufferedImage original = decode(image, metadata);
+      long decoded = System.nanoTime();
+      metadata.setBaseFilename(baseFilename);
+
+      // Progressive downscale: each rendition is scaled from the previous (larger) one, so only the
+      // first step touches the full-resolution original
+      List<BufferedImage> scaled = new ArrayList<>(RENDITIONS.size());
+      BufferedImage previous = original;
+      for (Rendition rendition : RENDITIONS) {
+        previous = scaleToWidth(previous, rendition.width());
+        scaled.add(previous);
+      }
+      metadata.setBlurHash(blurHash(previous));
+      long resized = System.nanoTime();
+
+      // Decided per upload by the encoder; clients reach the renditions through /api/v1/img
+      String format = renditionEncoder.preferredFormat();
+      List<String> names = renditionNames(baseFilename, format);
+      List<EncodedRendition> encoded = new ArrayList<>(RENDITIONS.size());
+      for (int i = 0; i < RENDITIONS.size(); i++) {
+        Rendition rendition = RENDITIONS.get(i);
+        EncodedBuffer bytes =
+            renditionEncoder.encodeWithinBudget(
+                scaled.get(i), format, rendition.quality(), rendition.budgetKb() * 1024L);
+        encoded.add(new EncodedRendition(names.get(i), bytes, "image/" + format));
       }
+
+      logger.debug(
+          "Processed {}x{} upload: decode {}ms, resize {}ms, encode {}ms",
+          metadata.getWidth(),
+          metadata.getHeight(),
+          (decoded - started) / 1_000_000,
+          (resized - decoded) / 1_000_000,
+          (System.nanoTime() - resized) / 1_000_000);
+      return new ProcessedImage(metadata, encoded);
+
+    } catch (Exception e) {
+      logger.error("Failed to save uploaded image", e);
+      throw new RuntimeException("Failed to save uploaded image", e);
     }
   }
 
-  private ImageMetadataDto extractMetadata(byte[] imageBytes) {
-    ImageMetadataDto metadata = new ImageMetadataDto();
-    try (ByteArrayInputStream iisBytes = new ByteArrayInputStream(imageBytes)) {
-
-      try (ImageInputStream iis = ImageIO.createImageInputStream(iisBytes)) {
-        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
-        if (readers.hasNext()) {
-          ImageReader reader = readers.next();
-          try {
-            reader.setInput(iis);
-            metadata.setWidth(reader.getWidth(0));
-            metadata.setHeight(reader.getHeight(0));
-            metadata.setMimeType("image/" + reader.getFormatName().toLowerCase());
-          } finally {
-            reader.dispose();
-          }
-        }
-      } catch (IOException e) {
-        logger.error("Could not read image metadata", e);
+  // Renditions are independent: upload them in parallel, within the dispatcher's concurrency cap
+  private ImageMetadataDto store(ProcessedImage processed) {
+    CompletableFuture<?>[] uploads =
+        processed.renditions().stream()
+            .map(
+                rendition ->
+                    uploadDispatcher.submit(
+                        rendition.filename(),
+                        () ->
+                            fileStorageService.storeFile(
+                                rendition.bytes().toInputStream(),
+                                rendition.bytes().size(),
+                                rendition.filename(),
+                                rendition.contentType())))
+            .toArray(CompletableFuture<?>[]::new);
+    CompletableFuture.allOf(uploads).join();
+    return processed.metadata();
+  }
+
+  record ImageHeader(int width, int height, String format) {}
+
+  /**
+   * Format, width and height from the image header, without decoding any pixels. Width and height
+   * are as displayed, i.e. swapped for a JPEG whose EXIF orientation turns it by 90 degrees.
+   */
+  static ImageHeader probe(SpooledImage source) throws IOException {
+    try (ImageInputStream iis = source.openImageStream()) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+      if (!readers.hasNext()) {
+        throw new IOException("Unsupported image format");
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, false);
+        boolean swap = swapsAxes(orientation(reader));
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        return new ImageHeader(
+            swap ? height : width, swap ? width : height, reader.getFormatName().toLowerCase());
+      } finally {
+        reader.dispose();
       }
+    }
+  }
 
-      iisBytes.reset();
+  /** Decodes only every n-th pixel, enough for a BlurHash at a fraction of a full decode. */
+  private BufferedImage decodePreview(SpooledImage source) throws IOException {
+    try (ImageInputStream iis = source.openImageStream()) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+      if (!readers.hasNext()) {
+        throw new IOException("Unsupported image format");
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, false);
+        int step =
+            Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (BLURHASH_SIZE * 2));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return orient(reader.read(0, param), orientation(reader));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
 
-      try (InputStream blurStream = new ByteArrayInputStream(imageBytes)) {
-        BufferedImage image = ImageIO.read(blurStream);
-        if (image != null) {
-          String hash = BlurHash.encode(image, 4, 3);
-          metadata.setBlurHash(hash);
-        }
-      } catch (IOException e) {
-        logger.error("Could not generate blurhash", e);
+  /**
+   * Reads format, dimensions and pixels with a single reader pass over the upload. The pixels are
+   * turned upright per the EXIF orientation, as {@code Thumbnails.of(InputStream)} did, before any
+   * rendition is scaled from them.
+   */
+  static BufferedImage decode(SpooledImage source, ImageMetadataDto metadata) throws IOException {
+    try (ImageInputStream iis = source.openImageStream()) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+      if (!readers.hasNext()) {
+        throw new IOException("Unsupported image format");
       }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, false);
+        metadata.setMimeType("image/" + reader.getFormatName().toLowerCase());
+        BufferedImage image = orient(reader.read(0), orientation(reader));
+        metadata.setWidth(image.getWidth());
+        metadata.setHeight(image.getHeight());
+        return image;
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
 
+  /**
+   * EXIF orientation of a JPEG, {@code null} for other formats or when the tag is missing or
+   * unreadable. The reader's input must have been set without ignoring metadata.
+   */
+  static Orientation orientation(ImageReader reader) {
+    try {
+      if (!"jpeg".equalsIgnoreCase(reader.getFormatName())) return null;
+      return ExifUtils.getExifOrientation(reader, 0);
     } catch (Exception e) {
-      logger.error("Failed to extract image metadata", e);
+      logger.debug("Ignoring unreadable EXIF orientation: {}", e.toString());
+      return null;
+    }
+  }
+
+  static BufferedImage orient(BufferedImage image, Orientation orientation) {
+    if (orientation == null || orientation == Orientation.TOP_LEFT) return image;
+    return ExifFilterUtils.getFilterForOrientation(orientation).apply(image);
+  }
+
+  // Orientations 5 to 8 are stored transposed: the displayed width is the stored height
+  private static boolean swapsAxes(Orientation orientation) {
+    return orientation == Orientation.LEFT_TOP
+        || orientation == Orientation.RIGHT_TOP
+        || orientation == Orientation.RIGHT_BOTTOM
+        || orientation == Orientation.LEFT_BOTTOM;
+  }
+
+  // Never upscales: an image narrower than the target is used as is
+  static BufferedImage scaleToWidth(BufferedImage image, int width) throws IOException {
+    if (image.getWidth() <= width) return image;
+    return Thumbnails.of(image).width(width).asBufferedImage();
+  }
+
+  // BlurHash only describes a 4x3 grid of colours, a 32px thumbnail carries all of it
+  private String blurHash(BufferedImage smallest) {
+    try {
+      BufferedImage thumbnail =
+          Thumbnails.of(smallest).size(BLURHASH_SIZE, BLURHASH_SIZE).asBufferedImage();
+      return BlurHash.encode(thumbnail, 4, 3);
+    } catch (Exception e) {
+      logger.error("Could not generate blurhash", e);
+      return null;
     }
-    return metadata;
   }
 }
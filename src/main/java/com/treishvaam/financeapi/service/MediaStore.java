@@ -0,0 +1,131 @@
+package com.treishvaam.financeapi.service;
+
+import com.treishvaam.financeapi.service.FileStorageService.StoredObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves media names for {@code /api/v1/uploads/**} and the logo: files in the local upload
+ * directory (legacy uploads, the logo) win over objects in MinIO. Small assets are kept in an
+ * in-process cache keyed by name and ETag, so a changed file is picked up on its next request.
+ */
+@Service
+public class MediaStore {
+
+  /**
+   * @param file the local file, or {@code null} for an object in MinIO
+   * @param lastModified epoch millis, -1 if unknown
+   */
+  public record MediaObject(
+      String name, long size, String etag, long lastModified, String contentType, Path file) {}
+
+  private static final String LEGACY_RENDITION_EXTENSION = ".webp";
+
+  private final FileStorageService fileStorageService;
+  private final Path uploadDir;
+  private final long maxCachedObjectBytes;
+  // Keyed by name and ETag: entries of replaced files age out like any other
+  private final ByteBoundedLruCache<byte[]> cache;
+
+  public MediaStore(
+      FileStorageService fileStorageService,
+      @Value("${storage.upload-dir:${java.io.tmpdir}/treishvaam-uploads-default}") String uploadDir,
+      @Value("${app.media.hot-cache.max-object-kb:64}") long maxObjectKb,
+      @Value("${app.media.hot-cache.size-mb:16}") long cacheMb) {
+    this.fileStorageService = fileStorageService;
+    this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+    this.maxCachedObjectBytes = maxObjectKb * 1024;
+    this.cache = new ByteBoundedLruCache<>(cacheMb * 1024 * 1024, bytes -> bytes.length);
+  }
+
+  /** Empty if neither the upload directory nor the bucket has {@code name}. */
+  public Optional<MediaObject> resolve(String name) {
+    if (name.isEmpty() || name.contains("/") || name.contains("\\") || name.contains("..")) {
+      return Optional.empty();
+    }
+    Path file = uploadDir.resolve(name).normalize();
+    if (file.startsWith(uploadDir) && Files.isRegularFile(file)) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag =
+            "\""
+                + Long.toHexString(lastModified)
+                + "-"
+                + Long.toHexString(attributes.size())
+                + "\"";
+        return Optional.of(
+            new MediaObject(
+                name, attributes.size(), etag, lastModified, contentType(name, null), file));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    Optional<StoredObject> stored = fileStorageService.stat(name);
+    if (stored.isEmpty() && name.endsWith(LEGACY_RENDITION_EXTENSION)) {
+      // Rendition URLs used to end in .webp whatever was stored; today's objects carry their own
+      // extension
+      String stem = name.substring(0, name.length() - LEGACY_RENDITION_EXTENSION.length());
+      stored = fileStorageService.findFirstObject(stem + ".").flatMap(fileStorageService::stat);
+    }
+    return stored.map(this::toMediaObject);
+  }
+
+  private MediaObject toMediaObject(StoredObject stored) {
+    String etag = stored.etag().startsWith("\"") ? stored.etag() : "\"" + stored.etag() + "\"";
+    return new MediaObject(
+        stored.name(),
+        stored.size(),
+        etag,
+        stored.lastModified() != null ? stored.lastModified().toEpochMilli() : -1,
+        contentType(stored.name(), stored.contentType()),
+        null);
+  }
+
+  /**
+   * The whole content of a small asset, from the cache or loaded into it; {@code null} if the
+   * object is too large to cache.
+   */
+  public byte[] cachedBytes(MediaObject object) {
+    if (object.size() > maxCachedObjectBytes) return null;
+    String key = object.name() + "|" + object.etag();
+    byte[] bytes = cache.get(key);
+    if (bytes != null) return bytes;
+    try (InputStream in = open(object, 0, object.size())) {
+      bytes = in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    cache.put(key, bytes);
+    return bytes;
+  }
+
+  /** Streams a slice of a MinIO object or local file; the caller closes the stream. */
+  public InputStream open(MediaObject object, long offset, long length) throws IOException {
+    if (object.file() == null) {
+      return fileStorageService.openObject(object.name(), offset, length);
+    }
+    InputStream in = Files.newInputStream(object.file());
+    in.skipNBytes(offset);
+    return in;
+  }
+
+  private static String contentType(String name, String stored) {
+    if (stored != null && !stored.isBlank() && !"application/octet-stream".equals(stored)) {
+      return stored;
+    }
+    return MediaTypeFactory.getMediaType(name)
+        .orElse(MediaType.APPLICATION_OCTET_STREAM)
+        .toString();
+  }
+}
@@ -0,0 +1,55 @@
+package com.treishvaam.financeapi.service;
+
+import com.treishvaam.financeapi.service.FileStorageService.StoredObject;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Object name to size/ETag with a TTL. Only existing objects are cached: a miss always goes to
+ * MinIO, so an object written by another node is found as soon as it exists. Uploads are never
+ * overwritten, which makes the TTL a bound on memory rather than on staleness.
+ */
+final class ObjectMetadataCache {
+
+  private record Entry(StoredObject object, long expiresAt) {}
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final int maxEntries;
+
+  ObjectMetadataCache(Duration ttl, int maxEntries) {
+    this.ttlNanos = ttl.toNanos();
+    this.maxEntries = maxEntries;
+  }
+
+  StoredObject get(String objectName) {
+    Entry entry = entries.get(objectName);
+    if (entry == null) return null;
+    if (entry.expiresAt() - System.nanoTime() < 0) {
+      entries.remove(objectName, entry);
+      return null;
+    }
+    return entry.object();
+  }
+
+  void put(StoredObject object) {
+    if (ttlNanos <= 0) return;
+    if (entries.size() >= maxEntries) evictExpired();
+    // Still full of live entries: start over rather than track recency on every hit
+    if (entries.size() >= maxEntries) entries.clear();
+    entries.put(object.name(), new Entry(object, System.nanoTime() + ttlNanos));
+  }
+
+  void evict(String objectName) {
+    entries.remove(objectName);
+  }
+
+  private void evictExpired() {
+    long now = System.nanoTime();
+    for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+      if (it.next().expiresAt() - now < 0) it.remove();
+    }
+  }
+}
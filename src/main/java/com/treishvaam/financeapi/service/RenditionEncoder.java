@@ -0,0 +1,176 @@
+package com.treishvaam.financeapi.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lossy encoders for renditions, best first: AVIF, WebP, then JPEG, which ImageIO always has. The
+ * first two are used only if an ImageIO writer plugin for them is on the classpath, so adding one
+ * switches the output without code changes.
+ */
+@Component
+public class RenditionEncoder {
+
+  private static final Logger logger = LoggerFactory.getLogger(RenditionEncoder.class);
+
+  private static final List<String> PREFERENCE = List.of("avif", "webp", "jpeg");
+
+  // Quality search bounds: below the floor artefacts show on photos; 4 halvings of the range
+  // land within ~0.03 of the best quality that fits
+  private static final double MIN_QUALITY = 0.40;
+  private static final int SEARCH_STEPS = 4;
+
+  /** Encoder output, handed to the upload as is instead of through a {@code toByteArray} copy. */
+  static final class EncodedBuffer extends ByteArrayOutputStream {
+    InputStream toInputStream() {
+      return new ByteArrayInputStream(buf, 0, count);
+    }
+  }
+
+  private final List<String> available;
+
+  public RenditionEncoder() {
+    try {
+      ImageIO.scanForPlugins();
+    } catch (Exception e) {
+      logger.error("Failed to scan ImageIO plugins", e);
+    }
+    this.available =
+        PREFERENCE.stream()
+            .filter(f -> "jpeg".equals(f) || ImageIO.getImageWritersByFormatName(f).hasNext())
+            .toList();
+    logger.info("Rendition formats available: {}", available);
+  }
+
+  /** Format for stored renditions, the best one available. */
+  public String preferredFormat() {
+    return available.get(0);
+  }
+
+  public boolean supports(String format) {
+    return available.contains(format) || ImageIO.getImageWritersByFormatName(format).hasNext();
+  }
+
+  /**
+   * Best available format the client lists explicitly in {@code Accept}; wildcards do not count, as
+   * accepting any image is no promise that a client decodes AVIF. JPEG otherwise.
+   */
+  public String negotiate(String accept) {
+    if (accept == null || accept.isBlank()) return "jpeg";
+    List<MediaType> accepted;
+    try {
+      accepted = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      return "jpeg";
+    }
+    for (String format : available) {
+      for (MediaType type : accepted) {
+        if ("image".equals(type.getType())
+            && format.equals(type.getSubtype().toLowerCase(Locale.ROOT))
+            && type.getQualityValue() > 0) {
+          return format;
+        }
+      }
+    }
+    return "jpeg";
+  }
+
+  public EncodedBuffer encode(BufferedImage image, String format, double quality)
+      throws IOException {
+    EncodedBuffer os = new EncodedBuffer();
+    write(prepare(image, format), format, quality, os);
+    return os;
+  }
+
+  /**
+   * Encodes at the highest quality up to {@code maxQuality} whose output fits {@code budgetBytes},
+   * by binary search. An image that does not fit even at the floor quality is returned at the
+   * floor; lossless formats are encoded once.
+   */
+  public EncodedBuffer encodeWithinBudget(
+      BufferedImage image, String format, double maxQuality, long budgetBytes) throws IOException {
+    BufferedImage prepared = prepare(image, format);
+    EncodedBuffer best = new EncodedBuffer();
+    write(prepared, format, maxQuality, best);
+    if (best.size() <= budgetBytes || "png".equals(format)) return best;
+
+    double low = MIN_QUALITY;
+    double high = maxQuality;
+    EncodedBuffer fitting = null;
+    for (int i = 0; i < SEARCH_STEPS; i++) {
+      double mid = (low + high) / 2;
+      EncodedBuffer candidate = new EncodedBuffer();
+      write(prepared, format, mid, candidate);
+      if (candidate.size() <= budgetBytes) {
+        fitting = candidate;
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    if (fitting != null) return fitting;
+    EncodedBuffer floor = new EncodedBuffer();
+    write(prepared, format, MIN_QUALITY, floor);
+    return floor;
+  }
+
+  // JPEG has no alpha channel: composite onto white
+  private static BufferedImage prepare(BufferedImage image, String format) {
+    if (!"jpeg".equals(format) || !image.getColorModel().hasAlpha()) return image;
+    BufferedImage rgb =
+        new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = rgb.createGraphics();
+    try {
+      g.setColor(Color.WHITE);
+      g.fillRect(0, 0, image.getWidth(), image.getHeight());
+      g.drawImage(image, 0, 0, null);
+    } finally {
+      g.dispose();
+    }
+    return rgb;
+  }
+
+  // Through a memory cache: ImageIO's default stream would spool every encode to a temp file
+  static void write(BufferedImage image, String format, double quality, OutputStream os)
+      throws IOException {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+    if (!writers.hasNext()) {
+      throw new IOException("No ImageIO writer for " + format);
+    }
+    ImageWriter writer = writers.next();
+    try (ImageOutputStream ios = new MemoryCacheImageOutputStream(os)) {
+      writer.setOutput(ios);
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      if (param.canWriteCompressed()) {
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        if (param.getCompressionType() == null && param.getCompressionTypes().length > 0) {
+          param.setCompressionType(param.getCompressionTypes()[0]);
+        }
+        param.setCompressionQuality((float) quality);
+      }
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+  }
+}
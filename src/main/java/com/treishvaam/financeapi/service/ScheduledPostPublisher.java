@@ -0,0 +1,177 @@
+package com.treishvaam.financeapi.service;
+
+import com.treishvaam.financeapi.messaging.EventOutbox;
+import com.treishvaam.financeapi.model.PostStatus;
+import com.treishvaam.financeapi.repository.BlogPostRepository;
+import com.treishvaam.financeapi.repository.ScheduledPostView;
+import com.treishvaam.financeapi.repository.UrlArticleIdView;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes SCHEDULED posts the moment they fall due.
+ *
+ * <p>Each replica keeps an in-memory {@link DelayQueue} keyed by {@code scheduledTime}, so a post
+ * goes live within a second of its schedule without polling the database. When an entry fires, the
+ * node claims every due row with {@code SELECT ... FOR UPDATE SKIP LOCKED} and flips them to
+ * PUBLISHED in one batched update; concurrent replicas skip the locked rows, so each post is
+ * published (and its events queued) exactly once across the cluster. A slow resync refills the
+ * queue with posts scheduled by other replicas and catches anything missed while the node was down.
+ */
+@Service
+public class ScheduledPostPublisher {
+
+  private static final Logger logger = LoggerFactory.getLogger(ScheduledPostPublisher.class);
+
+  private static final int CLAIM_BATCH_SIZE = 100;
+
+  private final BlogPostRepository blogPostRepository;
+  private final EventOutbox eventOutbox;
+  private final TransactionTemplate transactionTemplate;
+
+  private final DelayQueue<DueEntry> timer = new DelayQueue<>();
+  // postId -> scheduledTime currently on the timer (de-duplicates resync and editor saves)
+  private final Map<Long, Instant> pending = new ConcurrentHashMap<>();
+  private volatile Thread worker;
+
+  @Value("${app.scheduler.lookahead-minutes:15}")
+  private long lookaheadMinutes;
+
+  public ScheduledPostPublisher(
+      BlogPostRepository blogPostRepository,
+      EventOutbox eventOutbox,
+      PlatformTransactionManager transactionManager) {
+    this.blogPostRepository = blogPostRepository;
+    this.eventOutbox = eventOutbox;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    resync();
+    worker =
+        Thread.ofPlatform().daemon().name("scheduled-post-publisher").start(this::runTimerLoop);
+    logger.info("Scheduled post publisher started with {} pending post(s)", pending.size());
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (worker != null) {
+      worker.interrupt();
+    }
+  }
+
+  /** Puts a post on the publish timer. Safe to call repeatedly for the same post. */
+  public void schedule(Long postId, Instant scheduledTime) {
+    if (postId == null || scheduledTime == null) return;
+    Instant previous = pending.put(postId, scheduledTime);
+    if (!scheduledTime.equals(previous)) {
+      timer.offer(new DueEntry(postId, scheduledTime));
+    }
+  }
+
+  /**
+   * Safety net: reloads upcoming schedules (including overdue ones) from the DB. Picks up posts
+   * scheduled through another replica and anything left behind by a restart.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.scheduler.resync-interval-ms:300000}",
+      initialDelayString = "${app.scheduler.resync-interval-ms:300000}")
+  public void resync() {
+    try {
+      Instant until = Instant.now().plus(Duration.ofMinutes(lookaheadMinutes));
+      List<ScheduledPostView> upcoming =
+          blogPostRepository.findScheduleByStatusAndScheduledTimeBefore(
+              PostStatus.SCHEDULED, until);
+      for (ScheduledPostView view : upcoming) {
+        schedule(view.getId(), view.getScheduledTime());
+      }
+    } catch (Exception e) {
+      logger.error("Failed to resync scheduled posts", e);
+    }
+  }
+
+  /**
+   * Claims and publishes every due post in batches of {@value #CLAIM_BATCH_SIZE}. Index and sitemap
+   * events go to the outbox in the same transaction as the status change.
+   *
+   * @return number of posts this node published
+   */
+  public int publishDuePosts() {
+    int total = 0;
+    List<Long> published;
+    do {
+      published = transactionTemplate.execute(status -> claimAndPublishBatch());
+      if (published == null || published.isEmpty()) break;
+      total += published.size();
+      logger.info("Published {} scheduled post(s): {}", published.size(), published);
+    } while (published.size() == CLAIM_BATCH_SIZE);
+    return total;
+  }
+
+  private List<Long> claimAndPublishBatch() {
+    Instant now = Instant.now();
+    List<Long> ids = blogPostRepository.claimDueScheduledPostIds(now, CLAIM_BATCH_SIZE);
+    if (ids.isEmpty()) return ids;
+
+    // Normally assigned when the post was scheduled; only legacy rows need it here
+    for (UrlArticleIdView view : blogPostRepository.findMissingUrlArticleIds(ids)) {
+      blogPostRepository.updateUrlArticleId(
+          view.getId(),
+          BlogPostServiceImpl.generateUrlArticleId(view.getCreatedAt(), view.getId()));
+    }
+    blogPostRepository.markPublished(ids, PostStatus.PUBLISHED, now);
+    for (Long id : ids) {
+      eventOutbox.enqueueSearchIndexEvent(id, "INDEX");
+      eventOutbox.enqueueSitemapRegenerateEvent(id);
+    }
+    return ids;
+  }
+
+  private void runTimerLoop() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        DueEntry entry = timer.take();
+        pending.remove(entry.postId(), entry.dueAt());
+        // Everything that fell due together is handled by a single claim pass
+        DueEntry next;
+        while ((next = timer.poll()) != null) {
+          pending.remove(next.postId(), next.dueAt());
+        }
+        publishDuePosts();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        logger.error("Scheduled publish pass failed", e);
+      }
+    }
+  }
+
+  private record DueEntry(Long postId, Instant dueAt) implements Delayed {
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(Duration.between(Instant.now(), dueAt));
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return dueAt.compareTo(((DueEntry) other).dueAt);
+    }
+  }
+}
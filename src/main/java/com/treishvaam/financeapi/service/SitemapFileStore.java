@@ -0,0 +1,113 @@
+package com.treishvaam.financeapi.service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Owns the precomputed sitemap files under {@code storage.sitemap-dir}. Every file is written next
+ * to a {@code .gz} twin; both are staged in temp files and moved into place atomically, so a reader
+ * always sees either the previous or the new complete document.
+ */
+@Component
+public class SitemapFileStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(SitemapFileStore.class);
+
+  @Value("${storage.sitemap-dir:/app/sitemaps}")
+  private String sitemapDir;
+
+  private Path root;
+
+  @FunctionalInterface
+  public interface Content {
+    void writeTo(Writer writer) throws IOException;
+  }
+
+  @PostConstruct
+  public void init() {
+    root = Paths.get(sitemapDir).toAbsolutePath().normalize();
+    try {
+      Files.createDirectories(root);
+    } catch (IOException e) {
+      logger.error("Could not create sitemap directory {}", root, e);
+    }
+  }
+
+  /**
+   * Writes {@code fileName} and {@code fileName.gz}, replacing any previous version. Identical
+   * output leaves the existing files (and their modification time, which the sitemap index
+   * publishes as {@code lastmod}) untouched.
+   *
+   * @return whether the file changed
+   */
+  public boolean write(String fileName, Content content) throws IOException {
+    Path xmlTmp = Files.createTempFile(root, fileName, ".tmp");
+    Path gzTmp = Files.createTempFile(root, fileName + ".gz", ".tmp");
+    try {
+      try (Writer writer =
+          new BufferedWriter(
+              new OutputStreamWriter(Files.newOutputStream(xmlTmp), StandardCharsets.UTF_8))) {
+        content.writeTo(writer);
+      }
+      Path target = resolve(fileName, false);
+      if (Files.exists(target)
+          && Files.exists(resolve(fileName, true))
+          && Files.mismatch(xmlTmp, target) == -1L) {
+        return false;
+      }
+      try (InputStream in = Files.newInputStream(xmlTmp);
+          OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzTmp), 8192)) {
+        in.transferTo(out);
+      }
+      // gz first: a request negotiating gzip never sees a .gz older than its .xml
+      move(gzTmp, resolve(fileName, true));
+      move(xmlTmp, target);
+      return true;
+    } finally {
+      Files.deleteIfExists(xmlTmp);
+      Files.deleteIfExists(gzTmp);
+    }
+  }
+
+  public void delete(String fileName) throws IOException {
+    Files.deleteIfExists(resolve(fileName, true));
+    Files.deleteIfExists(resolve(fileName, false));
+  }
+
+  /** Modification time of the current version, or {@code null} if it has not been written. */
+  public Instant lastModified(String fileName) {
+    try {
+      return Files.getLastModifiedTime(resolve(fileName, false)).toInstant();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  public Path resolve(String fileName, boolean gzip) {
+    Path file = root.resolve(gzip ? fileName + ".gz" : fileName).normalize();
+    if (!file.startsWith(root)) {
+      throw new IllegalArgumentException("Invalid sitemap file name: " + fileName);
+    }
+    return file;
+  }
+
+  private void move(Path source, Path target) throws IOException {
+    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+}
@@ -0,0 +1,137 @@
+package com.treishvaam.financeapi.service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collects sitemap change notifications over a short window and then rewrites only the affected
+ * sitemap files in the background. A bulk edit of hundreds of posts therefore costs one rewrite per
+ * touched shard instead of one full rebuild per post.
+ */
+@Service
+public class SitemapInvalidationDebouncer {
+
+  private static final Logger logger = LoggerFactory.getLogger(SitemapInvalidationDebouncer.class);
+
+  private final SitemapService sitemapService;
+  private final TaskScheduler taskScheduler;
+
+  private final Object lock = new Object();
+  private Set<Integer> dirtyShards = new HashSet<>();
+  private boolean newsDirty;
+  private boolean categoriesDirty;
+  private boolean everythingDirty;
+  private ScheduledFuture<?> pendingFlush;
+
+  @Value("${app.sitemap.debounce-ms:10000}")
+  private long debounceMs;
+
+  public SitemapInvalidationDebouncer(SitemapService sitemapService, TaskScheduler taskScheduler) {
+    this.sitemapService = sitemapService;
+    this.taskScheduler = taskScheduler;
+  }
+
+  /** A post was published, updated or deleted: its posts-N shard and the news sitemap change. */
+  public void postChanged(long postId) {
+    synchronized (lock) {
+      dirtyShards.add(SitemapService.shardOf(postId));
+      newsDirty = true;
+      scheduleFlush();
+    }
+  }
+
+  public void categoriesChanged() {
+    synchronized (lock) {
+      categoriesDirty = true;
+      scheduleFlush();
+    }
+  }
+
+  /** Legacy event without a post id: refresh every shard. */
+  public void everythingChanged() {
+    synchronized (lock) {
+      everythingDirty = true;
+      scheduleFlush();
+    }
+  }
+
+  /** Builds the files on startup so a fresh node never serves a missing or stale sitemap. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    everythingChanged();
+  }
+
+  /**
+   * Safety net: the news sitemap ages posts out after 48h without any content event, and a replica
+   * that missed events (the sitemap queue is consumed by one node) converges here.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.sitemap.rebuild-interval-ms:3600000}",
+      initialDelayString = "${app.sitemap.rebuild-interval-ms:3600000}")
+  public void periodicRebuild() {
+    everythingChanged();
+  }
+
+  // Fixed window from the first event (not reset by later ones) so a steady stream cannot starve it
+  private void scheduleFlush() {
+    if (pendingFlush == null) {
+      pendingFlush = taskScheduler.schedule(this::flush, Instant.now().plusMillis(debounceMs));
+    }
+  }
+
+  void flush() {
+    Set<Integer> shards;
+    boolean news;
+    boolean categories;
+    boolean everything;
+    synchronized (lock) {
+      shards = new TreeSet<>(dirtyShards);
+      news = newsDirty;
+      categories = categoriesDirty;
+      everything = everythingDirty;
+      dirtyShards = new HashSet<>();
+      newsDirty = false;
+      categoriesDirty = false;
+      everythingDirty = false;
+      pendingFlush = null;
+    }
+
+    try {
+      if (everything) {
+        sitemapService.regenerateAll();
+        return;
+      }
+      // Only the shards holding the changed posts are re-read; the rest keep their files and
+      // lastmod
+      Set<Integer> changed = new TreeSet<>();
+      for (int shard : shards) {
+        if (sitemapService.regeneratePostsSitemap(shard)) changed.add(shard);
+      }
+      boolean newsChanged = news && sitemapService.regenerateNewsSitemap();
+      boolean categoriesChanged = categories && sitemapService.regenerateCategoriesSitemap();
+      if (!changed.isEmpty() || newsChanged || categoriesChanged) {
+        sitemapService.regenerateSitemapIndex();
+      }
+      logger.info(
+          "Sitemap files refreshed. Shards changed: {} of {}, news: {}, categories: {}",
+          changed,
+          shards,
+          newsChanged,
+          categoriesChanged);
+    } catch (Exception e) {
+      logger.error("Sitemap regeneration failed; retrying with a full rebuild", e);
+      everythingChanged();
+    }
+  }
+}
@@ -5,6 +5,14 @@ import com.treishvaam.financeapi.model.Category;
 import com.treishvaam.financeapi.model.PostStatus;
 import com.treishvaam.financeapi.repository.BlogPostRepository;
 import com.treishvaam.financeapi.repository.CategoryRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -14,61 +22,130 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Renders the sitemap documents and keeps their precomputed files in {@link SitemapFileStore} up to
+ * date. Content changes reach it through {@link SitemapInvalidationDebouncer}; crawler requests are
+ * answered from the files by {@code SitemapController} without touching the database.
+ */
 @Service
 public class SitemapService {
 
   private static final Logger logger = LoggerFactory.getLogger(SitemapService.class);
 
-  private static final int POSTS_PER_SITEMAP = 40000;
+  public static final int POSTS_PER_SITEMAP = 40000;
+
+  public static final String INDEX_FILE = "sitemap.xml";
+  public static final String NEWS_FILE = "sitemap-news.xml";
+  public static final String STATIC_FILE = "static.xml";
+  public static final String CATEGORIES_FILE = "categories.xml";
+
+  private static final int STREAM_FETCH_SIZE = 500;
+
+  private static final String POSTS_SHARD_SQL =
+      "SELECT p.user_friendly_slug, p.url_article_id, p.updated_at, p.cover_image_url,"
+          + " c.slug AS category_slug"
+          + " FROM blog_posts p LEFT JOIN categories c ON c.id = p.category_id"
+          + " WHERE p.status = ? AND p.id BETWEEN ? AND ? ORDER BY p.id";
 
   @Value("${app.base-url:https://treishfin.treishvaamgroup.com}")
   private String baseUrl;
 
   @Autowired private BlogPostRepository blogPostRepository;
   @Autowired private CategoryRepository categoryRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private SitemapFileStore sitemapFileStore;
 
-  // --- EXISTING GENERATION METHODS (Keep these as they were) ---
+  // --- FILE REGENERATION (crawlers are served these files, never the DB) ---
 
-  @Cacheable(value = "sitemap_index", key = "'main_index'")
-  public String generateSitemapIndex() {
-    StringBuilder xml = new StringBuilder();
-    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-    xml.append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+  public static String postsFile(int page) {
+    return "posts-" + page + ".xml";
+  }
 
-    String now = formatDate(Instant.now());
+  /** Rebuilds every sitemap file and drops shards that no longer exist. */
+  public void regenerateAll() throws IOException {
+    int shardCount = countPostShards();
+    int changed = 0;
+    for (int i = 0; i < shardCount; i++) {
+      if (regeneratePostsSitemap(i)) changed++;
+    }
+    removeShardsFrom(shardCount);
+    regenerateStaticSitemap();
+    regenerateCategoriesSitemap();
+    regenerateNewsSitemap();
+    regenerateSitemapIndex();
+    logger.info("Rebuilt sitemap files: {} of {} post shard(s) changed", changed, shardCount);
+  }
 
-    addSitemapEntry(xml, "/sitemaps/static.xml", now);
-    addSitemapEntry(xml, "/sitemaps/categories.xml", now);
-    addSitemapEntry(xml, "/sitemap-news.xml", now);
+  public boolean regenerateSitemapIndex() throws IOException {
+    return sitemapFileStore.write(INDEX_FILE, this::writeSitemapIndex);
+  }
 
-    long totalPosts = blogPostRepository.countByStatus(PostStatus.PUBLISHED);
-    int totalPages = (int) Math.ceil((double) totalPosts / POSTS_PER_SITEMAP);
-    if (totalPages == 0) totalPages = 1;
+  public boolean regenerateNewsSitemap() throws IOException {
+    return sitemapFileStore.write(NEWS_FILE, this::writeNewsSitemap);
+  }
+
+  public boolean regenerateStaticSitemap() throws IOException {
+    return sitemapFileStore.write(STATIC_FILE, this::writeStaticSitemap);
+  }
 
+  public boolean regenerateCategoriesSitemap() throws IOException {
+    return sitemapFileStore.write(CATEGORIES_FILE, this::writeCategoriesSitemap);
+  }
+
+  public boolean regeneratePostsSitemap(int page) throws IOException {
+    return sitemapFileStore.write(postsFile(page), out -> writePostsSitemap(page, out));
+  }
+
+  private void removeShardsFrom(int firstStale) throws IOException {
+    for (int i = firstStale; Files.exists(sitemapFileStore.resolve(postsFile(i), false)); i++) {
+      sitemapFileStore.delete(postsFile(i));
+    }
+  }
+
+  // --- XML WRITERS ---
+
+  /** Number of posts-N shards currently advertised in the index. */
+  public int countPostShards() {
+    Long maxId = blogPostRepository.findMaxIdByStatus(PostStatus.PUBLISHED);
+    return maxId == null ? 1 : shardOf(maxId) + 1;
+  }
+
+  /**
+   * Shards are fixed id ranges, so a post never moves between shards and a change to one post only
+   * touches {@code posts-<shardOf(id)>.xml}.
+   */
+  public static int shardOf(long postId) {
+    return (int) (postId / POSTS_PER_SITEMAP);
+  }
+
+  /**
+   * Each entry's {@code lastmod} is the time its file last actually changed, so crawlers only
+   * refetch the shards that were rewritten with different content.
+   */
+  public void writeSitemapIndex(Writer out) throws IOException {
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    out.write("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+
+    addSitemapEntry(out, "/sitemaps/", STATIC_FILE);
+    addSitemapEntry(out, "/sitemaps/", CATEGORIES_FILE);
+    addSitemapEntry(out, "/", NEWS_FILE);
+
+    int totalPages = countPostShards();
     for (int i = 0; i < totalPages; i++) {
-      addSitemapEntry(xml, "/sitemaps/posts-" + i + ".xml", now);
+      addSitemapEntry(out, "/sitemaps/", postsFile(i));
     }
 
-    xml.append("</sitemapindex>");
-    return xml.toString();
+    out.write("</sitemapindex>");
   }
 
-  @Cacheable(value = "sitemap_news", key = "'news_48h'")
-  @Transactional(readOnly = true)
-  public String generateNewsSitemap() {
-    StringBuilder xml = new StringBuilder();
-    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-    xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\"\n");
-    xml.append("        xmlns:news=\"http://www.google.com/schemas/sitemap-news/0.9\"\n");
-    xml.append("        xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n");
+  public void writeNewsSitemap(Writer out) throws IOException {
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    out.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\"\n");
+    out.write("        xmlns:news=\"http://www.google.com/schemas/sitemap-news/0.9\"\n");
+    out.write("        xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n");
 
     Instant fortyEightHoursAgo = Instant.now().minus(48, ChronoUnit.HOURS);
     List<BlogPost> newsPosts =
@@ -76,6 +153,7 @@ public class SitemapService {
             PostStatus.PUBLISHED, fortyEightHoursAgo);
 
     for (BlogPost post : newsPosts) {
+      StringBuilder xml = new StringBuilder();
       xml.append("  <url>\n");
       xml.append("    <loc>").append(buildPostUrl(post)).append("</loc>\n");
       xml.append("    <news:news>\n");
@@ -100,110 +178,111 @@ public class SitemapService {
         xml.append("    </image:image>\n");
       }
       xml.append("  </url>\n");
+      out.write(xml.toString());
     }
-    xml.append("</urlset>");
-    return xml.toString();
+    out.write("</urlset>");
   }
 
-  @Cacheable(value = "sitemap_archive", key = "'page_' + #page")
-  @Transactional(readOnly = true)
-  public String generatePostsSitemap(int page) {
-    StringBuilder xml = new StringBuilder();
-    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-    xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\"\n");
-    xml.append("        xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n");
+  /**
+   * Streams {@code posts-<page>.xml} straight to {@code out}. Rows come from a narrow projection
+   * over a forward-only, fetch-size limited cursor and each {@code <url>} is written as soon as it
+   * is read, so heap use stays constant however many posts the shard holds.
+   */
+  public void writePostsSitemap(int page, Writer out) throws IOException {
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    out.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\"\n");
+    out.write("        xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n");
 
-    PageRequest pageRequest =
-        PageRequest.of(page, POSTS_PER_SITEMAP, Sort.by("createdAt").descending());
-    Page<BlogPost> postPage = blogPostRepository.findAllByStatus(PostStatus.PUBLISHED, pageRequest);
+    long fromId = (long) page * POSTS_PER_SITEMAP;
+    long toId = fromId + POSTS_PER_SITEMAP - 1;
+    try {
+      jdbcTemplate.query(
+          con -> {
+            PreparedStatement ps =
+                con.prepareStatement(
+                    POSTS_SHARD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setString(1, PostStatus.PUBLISHED.name());
+            ps.setLong(2, fromId);
+            ps.setLong(3, toId);
+            return ps;
+          },
+          (ResultSet rs) -> {
+            try {
+              writePostUrl(out, rs);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      // Usually the crawler hung up mid-download
+      throw e.getCause();
+    }
+    out.write("</urlset>");
+  }
 
-    for (BlogPost post : postPage) {
-      xml.append("  <url>\n");
-      xml.append("    <loc>").append(buildPostUrl(post)).append("</loc>\n");
-      xml.append("    <lastmod>").append(formatDate(post.getUpdatedAt())).append("</lastmod>\n");
-      if (post.getCoverImageUrl() != null) {
-        String imgUrl = baseUrl + "/api/uploads/" + post.getCoverImageUrl();
-        xml.append("    <image:image>\n");
-        xml.append("      <image:loc>").append(imgUrl).append("</image:loc>\n");
-        xml.append("    </image:image>\n");
-      }
-      xml.append("  </url>\n");
+  private void writePostUrl(Writer out, ResultSet rs) throws SQLException, IOException {
+    String catSlug = rs.getString("category_slug");
+    Timestamp updatedAt = rs.getTimestamp("updated_at");
+    String coverImageUrl = rs.getString("cover_image_url");
+
+    out.write("  <url>\n    <loc>");
+    out.write(
+        buildPostUrl(catSlug, rs.getString("user_friendly_slug"), rs.getString("url_article_id")));
+    out.write("</loc>\n    <lastmod>");
+    out.write(formatDate(updatedAt != null ? updatedAt.toInstant() : null));
+    out.write("</lastmod>\n");
+    if (coverImageUrl != null) {
+      out.write("    <image:image>\n      <image:loc>");
+      out.write(escapeXml(baseUrl + "/api/uploads/" + coverImageUrl));
+      out.write("</image:loc>\n    </image:image>\n");
     }
-    xml.append("</urlset>");
-    return xml.toString();
+    out.write("  </url>\n");
   }
 
-  @Cacheable(value = "sitemap_static", key = "'static_pages'")
-  public String generateStaticSitemap() {
+  public void writeStaticSitemap(Writer out) throws IOException {
     String[] pages = {"/", "/about", "/vision", "/contact"};
-    StringBuilder xml = new StringBuilder();
-    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-    xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
-    String now = formatDate(Instant.now());
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    out.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+    // No per-page lastmod: it would change on every rebuild and defeat the unchanged-file check
     for (String p : pages) {
-      xml.append("  <url><loc>")
-          .append(baseUrl)
-          .append(p)
-          .append("</loc><lastmod>")
-          .append(now)
-          .append("</lastmod></url>\n");
+      out.write("  <url><loc>" + baseUrl + p + "</loc></url>\n");
     }
-    xml.append("</urlset>");
-    return xml.toString();
+    out.write("</urlset>");
   }
 
-  @Cacheable(value = "sitemap_categories", key = "'categories'")
-  public String generateCategoriesSitemap() {
-    StringBuilder xml = new StringBuilder();
-    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-    xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+  public void writeCategoriesSitemap(Writer out) throws IOException {
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    out.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
     List<Category> categories = categoryRepository.findAll();
-    String now = formatDate(Instant.now());
     for (Category cat : categories) {
       if (cat.getSlug() == null) continue;
       String url = baseUrl + "/category/" + cat.getSlug();
-      xml.append("  <url><loc>")
-          .append(url)
-          .append("</loc><lastmod>")
-          .append(now)
-          .append("</lastmod></url>\n");
+      out.write("  <url><loc>" + url + "</loc></url>\n");
     }
-    xml.append("</urlset>");
-    return xml.toString();
-  }
-
-  // --- NEW ENTERPRISE METHOD: CACHE EVICTION ---
-
-  /**
-   * Called via RabbitMQ (MessageListener) when a post is created/updated/deleted. This clears all
-   * sitemap caches so the next visit to /sitemap.xml triggers a fresh DB query.
-   */
-  @CacheEvict(
-      value = {
-        "sitemap_index",
-        "sitemap_news",
-        "sitemap_archive",
-        "sitemap_static",
-        "sitemap_categories"
-      },
-      allEntries = true)
-  public void clearCaches() {
-    logger.info("Evicting all Sitemap Caches due to content update");
+    out.write("</urlset>");
   }
 
   // --- Helpers ---
-  private void addSitemapEntry(StringBuilder xml, String path, String lastMod) {
-    xml.append("  <sitemap>\n");
-    xml.append("    <loc>").append(baseUrl).append(path).append("</loc>\n");
-    xml.append("    <lastmod>").append(lastMod).append("</lastmod>\n");
-    xml.append("  </sitemap>\n");
+  private void addSitemapEntry(Writer out, String dir, String fileName) throws IOException {
+    out.write("  <sitemap>\n");
+    out.write("    <loc>" + baseUrl + dir + fileName + "</loc>\n");
+    out.write(
+        "    <lastmod>" + formatDate(sitemapFileStore.lastModified(fileName)) + "</lastmod>\n");
+    out.write("  </sitemap>\n");
   }
 
   private String buildPostUrl(BlogPost post) {
-    String catSlug = (post.getCategory() != null) ? post.getCategory().getSlug() : "uncategorized";
+    return buildPostUrl(
+        post.getCategory() != null ? post.getCategory().getSlug() : null,
+        post.getUserFriendlySlug(),
+        post.getUrlArticleId());
+  }
+
+  private String buildPostUrl(String catSlug, String userFriendlySlug, String urlArticleId) {
     return String.format(
         "%s/category/%s/%s/%s",
-        baseUrl, catSlug, post.getUserFriendlySlug(), post.getUrlArticleId());
+        baseUrl, catSlug != null ? catSlug : "uncategorized", userFriendlySlug, urlArticleId);
   }
 
   private String formatDate(Instant instant) {
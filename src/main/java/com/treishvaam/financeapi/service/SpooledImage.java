@@ -0,0 +1,112 @@
+package com.treishvaam.financeapi.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Encoded image bytes that are read more than once (probe, decode, store). Small images stay on the
+ * heap; anything above the threshold is copied to a temp file and read back with random access, so
+ * a large original never exists as a {@code byte[]}. The SHA-256 of the content is computed while
+ * it is read in. Closing deletes the temp file.
+ */
+final class SpooledImage implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpooledImage.class);
+
+  private final byte[] bytes;
+  private final Path file;
+  private final long size;
+  private final String contentHash;
+
+  private SpooledImage(byte[] bytes, Path file, long size, MessageDigest digest) {
+    this.bytes = bytes;
+    this.file = file;
+    this.size = size;
+    this.contentHash = HexFormat.of().formatHex(digest.digest());
+  }
+
+  static SpooledImage of(MultipartFile upload, long thresholdBytes) throws IOException {
+    try (InputStream in = upload.getInputStream()) {
+      return of(in, upload.getSize(), thresholdBytes);
+    }
+  }
+
+  /** Reads {@code in} to the end; {@code size} is only used to pick heap or disk. */
+  static SpooledImage of(InputStream in, long size, long thresholdBytes) throws IOException {
+    MessageDigest digest = sha256();
+    InputStream hashing = new DigestInputStream(in, digest);
+    if (size >= 0 && size <= thresholdBytes) {
+      byte[] bytes = hashing.readAllBytes();
+      return new SpooledImage(bytes, null, bytes.length, digest);
+    }
+    Path file = Files.createTempFile("image-spool-", ".tmp");
+    try {
+      long copied = Files.copy(hashing, file, StandardCopyOption.REPLACE_EXISTING);
+      return new SpooledImage(null, file, copied, digest);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  static SpooledImage of(byte[] bytes) {
+    MessageDigest digest = sha256();
+    digest.update(bytes);
+    return new SpooledImage(bytes, null, bytes.length, digest);
+  }
+
+  long size() {
+    return size;
+  }
+
+  /** Lowercase hex SHA-256 of the bytes. */
+  String contentHash() {
+    return contentHash;
+  }
+
+  /** Seekable stream for ImageIO readers; a file is read in place instead of through a cache. */
+  ImageInputStream openImageStream() throws IOException {
+    return file != null
+        ? new FileImageInputStream(file.toFile())
+        : new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes));
+  }
+
+  /** Uploads the bytes with their exact length, straight from the temp file when spooled. */
+  String storeTo(FileStorageService storage, String objectName, String contentType) {
+    if (file != null) return storage.storeFile(file, objectName, contentType);
+    return storage.storeFile(new ByteArrayInputStream(bytes), size, objectName, contentType);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (file == null) return;
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.warn("Could not delete spooled image {}", file, e);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.treishvaam.financeapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.InternalException;
+import io.minio.errors.ServerException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs MinIO uploads on virtual threads with at most {@code app.storage.upload.max-concurrency} in
+ * flight, so a burst of renditions pipelines through the connection pool instead of opening a
+ * connection per object. Transient failures (I/O, 5xx, throttling) are retried with full-jitter
+ * exponential backoff; the upload task must therefore open a fresh stream on every call.
+ */
+@Component
+public class StorageUploadDispatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(StorageUploadDispatcher.class);
+
+  private static final Set<String> RETRYABLE_CODES =
+      Set.of("SlowDown", "InternalError", "ServiceUnavailable", "RequestTimeout");
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Semaphore permits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final int maxAttempts;
+  private final long initialBackoffMs;
+  private final long maxBackoffMs;
+  private final Counter retries;
+  private final Counter failures;
+
+  public StorageUploadDispatcher(
+      MeterRegistry meterRegistry,
+      @Value("${app.storage.upload.max-concurrency:16}") int maxConcurrency,
+      @Value("${app.storage.upload.max-attempts:3}") int maxAttempts,
+      @Value("${app.storage.upload.initial-backoff-ms:200}") long initialBackoffMs,
+      @Value("${app.storage.upload.max-backoff-ms:5000}") long maxBackoffMs) {
+    this.permits = new Semaphore(maxConcurrency);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialBackoffMs = initialBackoffMs;
+    this.maxBackoffMs = maxBackoffMs;
+    Gauge.builder("storage.upload.in_flight", inFlight, AtomicInteger::get)
+        .description("Uploads holding a dispatcher permit")
+        .register(meterRegistry);
+    Gauge.builder("storage.upload.waiting", permits, Semaphore::getQueueLength)
+        .description("Uploads waiting for a dispatcher permit")
+        .register(meterRegistry);
+    this.retries = Counter.builder("storage.upload.retries").register(meterRegistry);
+    this.failures = Counter.builder("storage.upload.failures").register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /** Queues {@code upload} (normally a {@code FileStorageService.storeFile} call). */
+  public CompletableFuture<String> submit(String objectName, Supplier<String> upload) {
+    return CompletableFuture.supplyAsync(() -> run(objectName, upload), executor);
+  }
+
+  private String run(String objectName, Supplier<String> upload) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted before uploading " + objectName, e);
+    }
+    inFlight.incrementAndGet();
+    try {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          return upload.get();
+        } catch (RuntimeException e) {
+          if (attempt >= maxAttempts || !isTransient(e)) {
+            failures.increment();
+            throw e;
+          }
+          retries.increment();
+          long backoff = backoffMs(attempt);
+          logger.warn(
+              "Upload of {} failed (attempt {}/{}), retrying in {}ms: {}",
+              objectName,
+              attempt,
+              maxAttempts,
+              backoff,
+              e.getMessage());
+          sleep(backoff, objectName);
+        }
+      }
+    } finally {
+      inFlight.decrementAndGet();
+      permits.release();
+    }
+  }
+
+  // Full jitter: uniform in [0, min(cap, base * 2^attempt)), so retries of a burst spread out
+  private long backoffMs(int attempt) {
+    long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+    return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling));
+  }
+
+  private static void sleep(long millis, String objectName) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while retrying " + objectName, e);
+    }
+  }
+
+  static boolean isTransient(Throwable error) {
+    for (Throwable t = error; t != null; t = t.getCause()) {
+      if (t instanceof IOException
+          || t instanceof ServerException
+          || t instanceof InternalException) {
+        return true;
+      }
+      if (t instanceof ErrorResponseException e) {
+        return RETRYABLE_CODES.contains(e.errorResponse().code());
+      }
+    }
+    return false;
+  }
+}
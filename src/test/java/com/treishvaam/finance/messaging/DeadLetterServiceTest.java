@@ -0,0 +1,188 @@
+package com.treishvaam.financeapi.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import com.treishvaam.financeapi.config.RabbitMQConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+class DeadLetterServiceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+  private final Channel channel = mock(Channel.class);
+  private final DeadLetterService service = new DeadLetterService(rabbitTemplate, objectMapper);
+  private final List<GetResponse> queue = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(rabbitTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+    AMQP.Queue.DeclareOk declareOk = mock(AMQP.Queue.DeclareOk.class);
+    when(declareOk.getMessageCount()).thenAnswer(invocation -> queue.size());
+    when(channel.queueDeclarePassive(RabbitMQConfig.QUEUE_DEAD_LETTER)).thenReturn(declareOk);
+    when(channel.basicGet(RabbitMQConfig.QUEUE_DEAD_LETTER, false))
+        .thenAnswer(invocation -> queue.isEmpty() ? null : queue.remove(0));
+    when(channel.isOpen()).thenReturn(true);
+  }
+
+  @Test
+  void replayRepublishesEachEventOnceWithAFreshDeathHistory() throws Exception {
+    queue.add(letter(1, RabbitMQConfig.QUEUE_SEARCH_INDEX, "INDEX_POST", 7));
+    queue.add(letter(2, RabbitMQConfig.QUEUE_SEARCH_INDEX, "INDEX_POST", 7));
+    queue.add(letter(3, RabbitMQConfig.QUEUE_SITEMAP, "SITEMAP_CHANGED", 7));
+
+    DeadLetterReplayStatus status = run(DeadLetterReplayStatus.REPLAY, emptyFilter());
+
+    assertThat(status.state()).isEqualTo(DeadLetterReplayStatus.COMPLETED);
+    assertThat(status.replayed()).isEqualTo(2);
+    assertThat(status.deduplicated()).isEqualTo(1);
+    ArgumentCaptor<AMQP.BasicProperties> properties =
+        ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+    verify(channel)
+        .basicPublish(
+            eq(RabbitMQConfig.EXCHANGE),
+            eq(RabbitMQConfig.ROUTING_KEY_SEARCH),
+            properties.capture(),
+            any(byte[].class));
+    verify(channel)
+        .basicPublish(
+            eq(RabbitMQConfig.EXCHANGE),
+            eq(RabbitMQConfig.ROUTING_KEY_SITEMAP),
+            any(AMQP.BasicProperties.class),
+            any(byte[].class));
+    Map<String, Object> headers = properties.getValue().getHeaders();
+    assertThat(headers).doesNotContainKey("x-death");
+    assertThat(headers).containsEntry(DeadLetterService.REPLAY_COUNT_HEADER, 1);
+    verify(channel).basicAck(1, false);
+    verify(channel).basicAck(2, false);
+    verify(channel).basicAck(3, false);
+    verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+  }
+
+  @Test
+  void messagesOutsideTheFilterAreRequeuedInPlace() throws Exception {
+    queue.add(letter(1, RabbitMQConfig.QUEUE_SITEMAP, "SITEMAP_CHANGED", 1));
+    queue.add(letter(2, RabbitMQConfig.QUEUE_SEARCH_INDEX, "DELETE_POST", 9));
+    queue.add(letter(3, RabbitMQConfig.QUEUE_SITEMAP, "SITEMAP_CHANGED", 2));
+
+    DeadLetterReplayStatus status =
+        run(
+            DeadLetterReplayStatus.REPLAY,
+            new DeadLetterService.Filter(RabbitMQConfig.ROUTING_KEY_SEARCH, null, null));
+
+    assertThat(status.replayed()).isEqualTo(1);
+    assertThat(status.skipped()).isEqualTo(2);
+    verify(channel).basicAck(2, false);
+    verify(channel).basicNack(3, true, true);
+  }
+
+  @Test
+  void discardAcksWithoutPublishing() throws Exception {
+    queue.add(letter(1, RabbitMQConfig.QUEUE_SEARCH_INDEX, "INDEX_POST", 4));
+    queue.add(letter(2, RabbitMQConfig.QUEUE_SEARCH_INDEX, "INDEX_POST", 4));
+
+    DeadLetterReplayStatus status = run(DeadLetterReplayStatus.DISCARD, emptyFilter());
+
+    assertThat(status.discarded()).isEqualTo(2);
+    assertThat(status.reasons())
+        .containsEntry(RabbitMQConfig.QUEUE_SEARCH_INDEX + ": rejected", 2L);
+    verify(channel, times(2)).basicAck(anyLong(), eq(false));
+    verify(channel, never())
+        .basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+  }
+
+  @Test
+  void onlyOneRunAtATime() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    queue.add(letter(1, RabbitMQConfig.QUEUE_SEARCH_INDEX, "INDEX_POST", 1));
+    doAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return queue.isEmpty() ? null : queue.remove(0);
+            })
+        .when(channel)
+        .basicGet(RabbitMQConfig.QUEUE_DEAD_LETTER, false);
+    service.start(DeadLetterReplayStatus.REPLAY, emptyFilter(), 500, 10);
+
+    assertThatThrownBy(() -> service.start(DeadLetterReplayStatus.DISCARD, emptyFilter(), null, 1))
+        .isInstanceOf(IllegalStateException.class);
+
+    release.countDown();
+    assertThat(awaitFinished().replayed()).isEqualTo(1);
+  }
+
+  private DeadLetterReplayStatus run(String mode, DeadLetterService.Filter filter)
+      throws InterruptedException {
+    service.start(mode, filter, 500, 100);
+    return awaitFinished();
+  }
+
+  private DeadLetterReplayStatus awaitFinished() throws InterruptedException {
+    for (int i = 0; i < 500; i++) {
+      DeadLetterReplayStatus status = service.status();
+      if (!DeadLetterReplayStatus.RUNNING.equals(status.state())) return status;
+      Thread.sleep(10);
+    }
+    throw new AssertionError("Dead-letter run did not finish");
+  }
+
+  private static DeadLetterService.Filter emptyFilter() {
+    return new DeadLetterService.Filter(null, null, null);
+  }
+
+  private GetResponse letter(long tag, String queue, String eventType, long entityId)
+      throws Exception {
+    String routingKey =
+        RabbitMQConfig.QUEUE_SITEMAP.equals(queue)
+            ? RabbitMQConfig.ROUTING_KEY_SITEMAP
+            : RabbitMQConfig.ROUTING_KEY_SEARCH;
+    Map<String, Object> death = new HashMap<>();
+    death.put("queue", queue);
+    death.put("reason", "rejected");
+    death.put("count", 1L);
+    death.put("exchange", RabbitMQConfig.EXCHANGE);
+    death.put("routing-keys", Arrays.asList(routingKey));
+    Map<String, Object> headers = new HashMap<>();
+    headers.put("x-death", List.of(death));
+    headers.put("x-first-death-queue", queue);
+    AMQP.BasicProperties properties =
+        new AMQP.BasicProperties.Builder().contentType("application/json").headers(headers).build();
+    byte[] body = objectMapper.writeValueAsBytes(new EventMessage(eventType, entityId, null));
+    Envelope envelope =
+        new Envelope(
+            tag,
+            false,
+            RabbitMQConfig.EXCHANGE_DEAD_LETTER,
+            RabbitMQConfig.ROUTING_KEY_DEAD_LETTER);
+    return new GetResponse(envelope, properties, body, 0);
+  }
+}
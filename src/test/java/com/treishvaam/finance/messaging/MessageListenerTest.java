@@ -0,0 +1,118 @@
+package com.treishvaam.financeapi.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.rabbitmq.client.Channel;
+import com.treishvaam.financeapi.model.BlogPost;
+import com.treishvaam.financeapi.model.PostStatus;
+import com.treishvaam.financeapi.repository.BlogPostRepository;
+import com.treishvaam.financeapi.search.FallbackSearchIndex;
+import com.treishvaam.financeapi.search.PostDocument;
+import com.treishvaam.financeapi.search.PostIndexer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.backoff.FixedBackOff;
+
+class MessageListenerTest {
+
+  private static final Instant EDITED = Instant.parse("2026-10-01T10:15:30.123456Z");
+
+  private final PostIndexer postIndexer = mock(PostIndexer.class);
+  private final FallbackSearchIndex fallbackSearchIndex = mock(FallbackSearchIndex.class);
+  private final BlogPostRepository blogPostRepository = mock(BlogPostRepository.class);
+  private final MessageListener listener = new MessageListener();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ReflectionTestUtils.setField(listener, "postIndexer", postIndexer);
+    ReflectionTestUtils.setField(listener, "fallbackSearchIndex", fallbackSearchIndex);
+    ReflectionTestUtils.setField(listener, "blogPostRepository", blogPostRepository);
+    ReflectionTestUtils.setField(listener, "consumerMetrics", mock(ConsumerMetrics.class));
+    ReflectionTestUtils.setField(listener, "searchRetryBackOff", new FixedBackOff(0, 0));
+    when(postIndexer.writeTargets()).thenReturn(List.of(PostDocument.INDEX_NAME));
+    when(postIndexer.bulkDocuments(any(), anyCollection(), anyCollection(), anyMap()))
+        .thenReturn(Map.of());
+    when(blogPostRepository.findAllById(any()))
+        .thenReturn(List.of(post(1, PostStatus.PUBLISHED), post(2, PostStatus.DRAFT)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void everyWriteCarriesTheVersionOfTheStateItRead() throws Exception {
+    long before = PostIndexer.version(Instant.now());
+
+    listener.handleSearchIndexEvents(
+        List.of(message(1, "UPDATE", 10), message(2, "UPDATE", 11), message(3, "INDEX", 12)),
+        mock(Channel.class));
+
+    ArgumentCaptor<Collection<PostDocument>> docs = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<Collection<Long>> deletes = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<Map<Long, Long>> versions = ArgumentCaptor.forClass(Map.class);
+    verify(postIndexer)
+        .bulkDocuments(
+            eq(PostDocument.INDEX_NAME), docs.capture(), deletes.capture(), versions.capture());
+    assertThat(docs.getValue()).extracting(PostDocument::getId).containsExactly("1");
+    assertThat(deletes.getValue()).containsExactlyInAnyOrder(2L, 3L);
+    assertThat(versions.getValue())
+        .containsEntry(1L, PostIndexer.version(EDITED))
+        .containsEntry(2L, PostIndexer.version(EDITED));
+    // Post 3 no longer exists: its delete outranks any state read earlier
+    assertThat(versions.getValue().get(3L)).isGreaterThanOrEqualTo(before);
+    verify(fallbackSearchIndex, never()).apply(any(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void fallbackQueueFeedsOnlyThisNodesIndex() throws Exception {
+    listener.handleSearchFallbackEvents(
+        List.of(
+            new EventMessage("INDEX", 1L, null),
+            new EventMessage("UPDATE", 2L, null),
+            new EventMessage("DELETE", 5L, null)));
+
+    ArgumentCaptor<Collection<PostDocument>> docs = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<Collection<Long>> deletes = ArgumentCaptor.forClass(Collection.class);
+    verify(fallbackSearchIndex).apply(docs.capture(), deletes.capture());
+    assertThat(docs.getValue()).extracting(PostDocument::getId).containsExactly("1");
+    assertThat(deletes.getValue()).containsExactlyInAnyOrder(2L, 5L);
+    verify(postIndexer, never()).bulkDocuments(any(), anyCollection(), anyCollection(), anyMap());
+  }
+
+  @Test
+  void versionsOrderPostStatesByMicrosecond() {
+    assertThat(PostIndexer.version(EDITED.plusNanos(1_000)))
+        .isEqualTo(PostIndexer.version(EDITED) + 1);
+  }
+
+  private static Message<EventMessage> message(long postId, String type, long tag) {
+    return MessageBuilder.withPayload(new EventMessage(type, postId, null))
+        .setHeader(AmqpHeaders.DELIVERY_TAG, tag)
+        .build();
+  }
+
+  private static BlogPost post(long id, PostStatus status) {
+    BlogPost post = new BlogPost();
+    post.setId(id);
+    post.setTitle("Post " + id);
+    post.setStatus(status);
+    post.setUpdatedAt(EDITED);
+    return post;
+  }
+}
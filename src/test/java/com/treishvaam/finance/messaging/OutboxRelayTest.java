@@ -0,0 +1,88 @@
+package com.treishvaam.financeapi.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+class OutboxRelayTest {
+
+  private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+  private final MessagePublisher publisher = mock(MessagePublisher.class);
+  private final PlatformTransactionManager transactionManager =
+      mock(PlatformTransactionManager.class);
+  private final OutboxRelay relay = new OutboxRelay(repository, publisher, transactionManager);
+
+  private final List<OutboxEvent> batch = List.of(event(1, 0), event(2, 3));
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(relay, "batchSize", 200);
+    ReflectionTestUtils.setField(relay, "confirmTimeoutMs", 5000L);
+    ReflectionTestUtils.setField(relay, "claimLeaseMs", 60000L);
+    when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    when(repository.lockNextUnclaimed(any(), anyInt())).thenReturn(batch);
+  }
+
+  @Test
+  void batchIsPublishedAfterTheClaimCommitsAndDeletedByVersion() {
+    assertThat(relay.drainOnce()).isEqualTo(2);
+
+    InOrder order = inOrder(repository, transactionManager, publisher);
+    order.verify(repository).claim(eq(List.of(1L, 2L)), anyString(), any());
+    order.verify(transactionManager).commit(any());
+    order.verify(publisher).publishConfirmed(eq(batch), any(Duration.class));
+    order.verify(transactionManager).getTransaction(any());
+    order.verify(repository).deletePublished(1L, 0);
+    order.verify(repository).deletePublished(2L, 3);
+    order.verify(repository).release(anyString());
+    order.verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void failedPublishReleasesTheClaimWithoutDeleting() {
+    doThrow(new AmqpException("nack")).when(publisher).publishConfirmed(any(), any());
+
+    assertThat(relay.drainOnce()).isEqualTo(-1);
+
+    verify(repository).releaseFailed(anyString(), eq("nack"));
+    verify(repository, never()).deletePublished(any(), anyLong());
+  }
+
+  @Test
+  void nothingToClaimPublishesNothing() {
+    when(repository.lockNextUnclaimed(any(), anyInt())).thenReturn(List.of());
+
+    assertThat(relay.drainOnce()).isZero();
+
+    verify(publisher, never()).publishConfirmed(any(), any());
+  }
+
+  private static OutboxEvent event(long id, long version) {
+    OutboxEvent event = new OutboxEvent();
+    event.setId(id);
+    event.setVersion(version);
+    event.setRoutingKey("event.search");
+    event.setEntityId(id);
+    event.setEventType("INDEX_POST");
+    return event;
+  }
+}
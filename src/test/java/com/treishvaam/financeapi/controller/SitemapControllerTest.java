@@ -0,0 +1,22 @@
+package com.treishvaam.financeapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SitemapControllerTest {
+
+  @Test
+  void gzipIsServedOnlyWhenAcceptedWithANonZeroQuality() {
+    assertThat(SitemapController.acceptsGzip("gzip, deflate, br")).isTrue();
+    assertThat(SitemapController.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+    assertThat(SitemapController.acceptsGzip("*")).isTrue();
+
+    assertThat(SitemapController.acceptsGzip(null)).isFalse();
+    assertThat(SitemapController.acceptsGzip("identity")).isFalse();
+    assertThat(SitemapController.acceptsGzip("gzip;q=0")).isFalse();
+    assertThat(SitemapController.acceptsGzip("gzip; q=0.000, *;q=1")).isFalse();
+    assertThat(SitemapController.acceptsGzip("br, *;q=0")).isFalse();
+    assertThat(SitemapController.acceptsGzip("gzip;q=abc")).isFalse();
+  }
+}
@@ -0,0 +1,111 @@
+package com.treishvaam.financeapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.treishvaam.financeapi.dto.BlogPostSuggestionDto;
+import com.treishvaam.financeapi.dto.SearchHitDto;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FallbackSearchIndexTest {
+
+  private FallbackSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new FallbackSearchIndex(mock(PublishedPostLoader.class));
+    // Threshold 0: the first batch is compacted into the encoded base segment
+    ReflectionTestUtils.setField(index, "compactThreshold", 0);
+    index.apply(
+        List.of(
+            post(1, "Rising rates squeeze lenders", "markets"),
+            post(2, "Gold outlook for the year", "commodities"),
+            post(300, "Mortgage rates explained", "markets")),
+        List.of());
+    // From here on changes stay in the delta segment and shadow the base postings
+    ReflectionTestUtils.setField(index, "compactThreshold", 1000);
+  }
+
+  @Test
+  void postingsRoundTripThroughVarintCodec() {
+    List<Long> ids = List.of(1L, 2L, 129L, 130L, 16_513L, 5_000_000L, 1L << 40);
+
+    byte[] encoded = FallbackSearchIndex.encode(ids);
+
+    assertThat(FallbackSearchIndex.decode(encoded))
+        .containsExactly(1, 2, 129, 130, 16_513, 5_000_000, 1L << 40);
+    // Gaps of 1 and 127 cost a byte each
+    assertThat(FallbackSearchIndex.encode(List.of(1L, 2L, 129L))).hasSize(3);
+    assertThat(FallbackSearchIndex.decode(new byte[0])).isEmpty();
+  }
+
+  @Test
+  void searchesCompactedBaseSegment() {
+    assertThat(ids(index.search("rates", null, 0, 10))).containsExactly(300L, 1L);
+    assertThat(ids(index.search("rates", "markets", 0, 10))).containsExactly(300L, 1L);
+    assertThat(index.count("gold", null)).isEqualTo(1);
+  }
+
+  @Test
+  void updateShadowsBasePostings() {
+    index.apply(List.of(post(1, "Lenders brace for recession", "markets")), List.of());
+
+    assertThat(ids(index.search("rates", null, 0, 10))).containsExactly(300L);
+    assertThat(ids(index.search("recession", null, 0, 10))).containsExactly(1L);
+    assertThat(ids(index.search("lenders", null, 0, 10))).containsExactly(1L);
+  }
+
+  @Test
+  void deleteShadowsBasePostings() {
+    index.apply(List.of(), List.of(300L));
+
+    assertThat(ids(index.search("rates", null, 0, 10))).containsExactly(1L);
+    assertThat(index.count("mortgage", null)).isZero();
+  }
+
+  @Test
+  void readdedPostIsFoundAgainAfterDelete() {
+    index.apply(List.of(), List.of(2L));
+    index.apply(List.of(post(2, "Gold outlook revised", "commodities")), List.of());
+
+    assertThat(ids(index.search("gold", null, 0, 10))).containsExactly(2L);
+  }
+
+  @Test
+  void queryTermsAreStemmedLikeIndexedTerms() {
+    // "rate" / "rated" / "rating" all have to reach the "rates" and "rising" postings
+    assertThat(ids(index.search("rate", null, 0, 10))).containsExactly(300L, 1L);
+    assertThat(ids(index.search("rated", null, 0, 10))).containsExactly(300L, 1L);
+    assertThat(ids(index.search("rise rating", null, 0, 10))).containsExactly(1L, 300L);
+  }
+
+  @Test
+  void suggestMatchesLastWordAsPrefixAndRequiresEveryWord() {
+    List<BlogPostSuggestionDto> suggestions = index.suggest("mortgage ra", 8);
+    assertThat(suggestions).extracting(BlogPostSuggestionDto::getId).containsExactly(300L);
+
+    assertThat(index.suggest("gold ra", 8)).isEmpty();
+  }
+
+  private static List<Long> ids(List<SearchHitDto> hits) {
+    return hits.stream().map(SearchHitDto::getId).toList();
+  }
+
+  private static PostDocument post(long id, String title, String category) {
+    PostDocument doc =
+        new PostDocument(
+            String.valueOf(id),
+            title,
+            null,
+            "post-" + id,
+            "PUBLISHED",
+            category,
+            "post-" + id,
+            "a" + id);
+    doc.setTags(List.of());
+    return doc;
+  }
+}
@@ -0,0 +1,56 @@
+package com.treishvaam.financeapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treishvaam.financeapi.dto.BlogPostSuggestionDto;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PrefixSuggestionCacheTest {
+
+  private static final BlogPostSuggestionDto INFLATION =
+      suggestion(1L, "Inflation Outlook for 2025");
+  private static final BlogPostSuggestionDto INFRASTRUCTURE =
+      suggestion(2L, "Infrastructure bonds, explained");
+  private static final BlogPostSuggestionDto RATES =
+      suggestion(3L, "Why rates rise with inflation");
+
+  private final PrefixSuggestionCache cache = new PrefixSuggestionCache(16, 60_000);
+
+  @Test
+  void singleTermIsNarrowedFromCompleteShorterPrefix() {
+    cache.put("inf", List.of(INFLATION, INFRASTRUCTURE, RATES), PostSuggestService.LIMIT);
+
+    assertThat(cache.lookup("infla")).containsExactly(INFLATION, RATES);
+    assertThat(cache.lookup("infr")).containsExactly(INFRASTRUCTURE);
+  }
+
+  @Test
+  void truncatedResultIsNotNarrowed() {
+    cache.put("inf", List.of(INFLATION, INFRASTRUCTURE, RATES), 3);
+
+    assertThat(cache.lookup("infla")).isNull();
+  }
+
+  @Test
+  void multiTermPrefixOnlyHitsExactEntries() {
+    // ES matches complete terms through the stemmed title as well ("rate" finds "rates"), so a
+    // local filter of title words would drop hits ES returns
+    cache.put("rate", List.of(RATES), PostSuggestService.LIMIT);
+    cache.put("rate in", List.of(RATES), PostSuggestService.LIMIT);
+
+    assertThat(cache.lookup("rate inf")).isNull();
+    assertThat(cache.lookup("rate in")).containsExactly(RATES);
+  }
+
+  @Test
+  void narrowMatchesWordPrefixesOnly() {
+    assertThat(PrefixSuggestionCache.narrow(List.of(INFLATION, RATES), "look")).isEmpty();
+    assertThat(PrefixSuggestionCache.narrow(List.of(INFLATION, RATES), "outl"))
+        .containsExactly(INFLATION);
+  }
+
+  private static BlogPostSuggestionDto suggestion(Long id, String title) {
+    return new BlogPostSuggestionDto(id, title, "slug-" + id, "markets", "slug-" + id, "a" + id);
+  }
+}
@@ -0,0 +1,59 @@
+package com.treishvaam.financeapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class ReindexStatusTest {
+
+  @Test
+  void progressAccumulatesAcrossChunks() {
+    Instant started = Instant.now().minusSeconds(10);
+    ReindexStatus status = ReindexStatus.started("posts_v2", 1000);
+
+    status = status.progress(200, 0, 200, started);
+    status = status.progress(150, 3, 356, started);
+
+    assertThat(status.state()).isEqualTo(ReindexStatus.RUNNING);
+    assertThat(status.indexed()).isEqualTo(350);
+    assertThat(status.failed()).isEqualTo(3);
+    assertThat(status.lastId()).isEqualTo(356);
+    assertThat(status.percent()).isEqualTo(35.3);
+    assertThat(status.docsPerSecond()).isBetween(30L, 35L);
+  }
+
+  @Test
+  void completedReportsFullProgressAndKeepsCounts() {
+    Instant started = Instant.now();
+    ReindexStatus status = ReindexStatus.started("posts_v2", 10).progress(9, 1, 10, started);
+
+    ReindexStatus completed = status.completed(started);
+
+    assertThat(completed.state()).isEqualTo(ReindexStatus.COMPLETED);
+    assertThat(completed.percent()).isEqualTo(100);
+    assertThat(completed.indexed()).isEqualTo(9);
+    assertThat(completed.failed()).isEqualTo(1);
+    assertThat(completed.finishedAt()).isNotNull();
+  }
+
+  @Test
+  void failedKeepsProgressReachedSoFar() {
+    Instant started = Instant.now();
+    ReindexStatus status = ReindexStatus.started("posts_v2", 4).progress(1, 0, 7, started);
+
+    ReindexStatus failed = status.failed(started, "cluster unavailable");
+
+    assertThat(failed.state()).isEqualTo(ReindexStatus.FAILED);
+    assertThat(failed.percent()).isEqualTo(25);
+    assertThat(failed.lastId()).isEqualTo(7);
+    assertThat(failed.error()).isEqualTo("cluster unavailable");
+  }
+
+  @Test
+  void emptySourceCountsAsDone() {
+    ReindexStatus status = ReindexStatus.started("posts_v2", 0).progress(0, 0, 0, Instant.now());
+
+    assertThat(status.percent()).isEqualTo(100);
+  }
+}
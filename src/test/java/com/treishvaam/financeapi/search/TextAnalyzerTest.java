@@ -0,0 +1,41 @@
+package com.treishvaam.financeapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TextAnalyzerTest {
+
+  @Test
+  void inflectionsShareOneStem() {
+    assertThat(List.of("rate", "rates", "rated", "rating"))
+        .extracting(TextAnalyzer::stem)
+        .containsOnly("rat");
+    assertThat(List.of("run", "running", "runs"))
+        .extracting(TextAnalyzer::stem)
+        .containsOnly("run");
+    assertThat(TextAnalyzer.stem("companies")).isEqualTo(TextAnalyzer.stem("company"));
+  }
+
+  @Test
+  void leavesShortWordsAndLatinEndingsAlone() {
+    assertThat(TextAnalyzer.stem("gas")).isEqualTo("gas");
+    assertThat(TextAnalyzer.stem("bonus")).isEqualTo("bonus");
+    assertThat(TextAnalyzer.stem("analysis")).isEqualTo("analysis");
+    assertThat(TextAnalyzer.stem("business")).isEqualTo("business");
+  }
+
+  @Test
+  void termsDropStopWordsAndStem() {
+    assertThat(TextAnalyzer.terms("The rates, and the RATING of bonds"))
+        .containsExactly("rat", "rat", "bond");
+  }
+
+  @Test
+  void wordsSplitOnPunctuationWithoutStemming() {
+    assertThat(TextAnalyzer.words("S&P 500: Rates-up!"))
+        .containsExactly("s", "p", "500", "rates", "up");
+    assertThat(TextAnalyzer.words(null)).isEmpty();
+  }
+}
@@ -0,0 +1,42 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ByteBoundedLruCacheTest {
+
+  private final ByteBoundedLruCache<byte[]> cache =
+      new ByteBoundedLruCache<>(800, bytes -> bytes.length);
+
+  @Test
+  void leastRecentlyUsedEntriesGoOnceTheBytesExceedTheBound() {
+    for (int i = 0; i < 8; i++) cache.put("k" + i, new byte[100]);
+    cache.get("k0");
+
+    cache.put("k8", new byte[100]);
+
+    assertThat(cache.get("k0")).isNotNull();
+    assertThat(cache.get("k1")).isNull();
+    assertThat(cache.get("k8")).isNotNull();
+  }
+
+  @Test
+  void replacingAnEntryCountsOnlyItsNewSize() {
+    for (int i = 0; i < 8; i++) cache.put("k" + i, new byte[100]);
+
+    cache.put("k7", new byte[50]);
+    cache.put("k8", new byte[50]);
+
+    assertThat(cache.get("k0")).isNotNull();
+  }
+
+  @Test
+  void valueOverAnEighthOfTheBoundIsNotCached() {
+    cache.put("small", new byte[100]);
+    cache.put("large", new byte[101]);
+
+    assertThat(cache.get("small")).isNotNull();
+    assertThat(cache.get("large")).isNull();
+  }
+}
@@ -0,0 +1,106 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treishvaam.financeapi.service.ImageService.ImageHeader;
+import com.treishvaam.financeapi.service.ImageService.ImageMetadataDto;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+class ImageOrientationTest {
+
+  // Stored 400x200: red left half, blue right half
+  private static final int STORED_WIDTH = 400;
+  private static final int STORED_HEIGHT = 200;
+
+  @Test
+  void decodeTurnsRotatedJpegUpright() throws IOException {
+    // 6 = rotate 90 degrees clockwise to display: the stored left edge becomes the top
+    SpooledImage image = SpooledImage.of(withExifOrientation(fixture(), 6));
+    ImageMetadataDto metadata = new ImageMetadataDto();
+
+    BufferedImage decoded = ImageService.decode(image, metadata);
+
+    assertThat(decoded.getWidth()).isEqualTo(STORED_HEIGHT);
+    assertThat(decoded.getHeight()).isEqualTo(STORED_WIDTH);
+    assertThat(metadata.getWidth()).isEqualTo(STORED_HEIGHT);
+    assertThat(metadata.getHeight()).isEqualTo(STORED_WIDTH);
+    assertThat(isRed(decoded.getRGB(STORED_HEIGHT / 2, 20))).isTrue();
+    assertThat(isRed(decoded.getRGB(STORED_HEIGHT / 2, STORED_WIDTH - 20))).isFalse();
+  }
+
+  @Test
+  void decodeFlipsMirroredJpeg() throws IOException {
+    // 2 = mirrored horizontally: blue ends up on the left
+    BufferedImage decoded =
+        ImageService.decode(
+            SpooledImage.of(withExifOrientation(fixture(), 2)), new ImageMetadataDto());
+
+    assertThat(decoded.getWidth()).isEqualTo(STORED_WIDTH);
+    assertThat(isRed(decoded.getRGB(20, STORED_HEIGHT / 2))).isFalse();
+    assertThat(isRed(decoded.getRGB(STORED_WIDTH - 20, STORED_HEIGHT / 2))).isTrue();
+  }
+
+  @Test
+  void probeReportsDisplayedDimensions() throws IOException {
+    ImageHeader rotated = ImageService.probe(SpooledImage.of(withExifOrientation(fixture(), 8)));
+    ImageHeader upright = ImageService.probe(SpooledImage.of(fixture()));
+
+    assertThat(rotated.width()).isEqualTo(STORED_HEIGHT);
+    assertThat(rotated.height()).isEqualTo(STORED_WIDTH);
+    assertThat(upright.width()).isEqualTo(STORED_WIDTH);
+    assertThat(upright.format()).isEqualTo("jpeg");
+  }
+
+  @Test
+  void imageWithoutOrientationIsLeftAsStored() throws IOException {
+    BufferedImage decoded = ImageService.decode(SpooledImage.of(fixture()), new ImageMetadataDto());
+
+    assertThat(decoded.getWidth()).isEqualTo(STORED_WIDTH);
+    assertThat(isRed(decoded.getRGB(20, STORED_HEIGHT / 2))).isTrue();
+  }
+
+  private static boolean isRed(int rgb) {
+    Color color = new Color(rgb);
+    return color.getRed() > 200 && color.getBlue() < 60;
+  }
+
+  private static byte[] fixture() throws IOException {
+    BufferedImage image =
+        new BufferedImage(STORED_WIDTH, STORED_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.RED);
+    g.fillRect(0, 0, STORED_WIDTH / 2, STORED_HEIGHT);
+    g.setColor(Color.BLUE);
+    g.fillRect(STORED_WIDTH / 2, 0, STORED_WIDTH / 2, STORED_HEIGHT);
+    g.dispose();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "jpeg", out);
+    return out.toByteArray();
+  }
+
+  /** Inserts an APP1 Exif segment with only the Orientation tag after the JFIF APP0 segment. */
+  static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+    int app0Length = ((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF);
+    int insertAt = 4 + app0Length;
+    ByteBuffer tiff = ByteBuffer.allocate(26);
+    tiff.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+    tiff.putShort((short) 1);
+    tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1);
+    tiff.putShort((short) orientation).putShort((short) 0);
+    tiff.putInt(0);
+    ByteBuffer app1 = ByteBuffer.allocate(4 + 6 + tiff.capacity());
+    app1.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + 6 + tiff.capacity()));
+    app1.put("Exif".getBytes()).put((byte) 0).put((byte) 0).put(tiff.array());
+
+    ByteBuffer out = ByteBuffer.allocate(jpeg.length + app1.capacity());
+    out.put(jpeg, 0, insertAt).put(app1.array()).put(jpeg, insertAt, jpeg.length - insertAt);
+    return out.array();
+  }
+}
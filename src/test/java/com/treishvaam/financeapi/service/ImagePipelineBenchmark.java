@@ -0,0 +1,69 @@
+package com.treishvaam.financeapi.service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.coobird.thumbnailator.Thumbnails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the rendition pipeline with the one it replaced on a 3000x2000 photo-like JPEG: one
+ * {@code Thumbnails.of(InputStream)} per rendition (a full decode each) versus a single decode with
+ * progressive downscaling. Both encode JPEG so only the decode/resize strategy differs.
+ *
+ * <p>Not part of the test run; use {@code mvn -Pbenchmark test -Dbenchmark=ImagePipeline}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImagePipelineBenchmark {
+
+  private static final int[] WIDTHS = {1920, 1200, 800, 480};
+  private static final double QUALITY = 0.85;
+
+  private final RenditionEncoder encoder = new RenditionEncoder();
+  private byte[] fixture;
+
+  @Setup
+  public void setUp() {
+    fixture = TestImages.photoJpeg(3000, 2000);
+  }
+
+  @Benchmark
+  public void decodePerRendition(Blackhole blackhole) throws IOException {
+    for (int width : WIDTHS) {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      Thumbnails.of(new ByteArrayInputStream(fixture))
+          .width(width)
+          .outputQuality(QUALITY)
+          .outputFormat("jpg")
+          .toOutputStream(os);
+      blackhole.consume(os.size());
+    }
+  }
+
+  @Benchmark
+  public void singleDecodeProgressiveDownscale(Blackhole blackhole) throws IOException {
+    BufferedImage previous =
+        ImageService.decode(SpooledImage.of(fixture), new ImageService.ImageMetadataDto());
+    for (int width : WIDTHS) {
+      previous = ImageService.scaleToWidth(previous, width);
+      blackhole.consume(encoder.encode(previous, "jpeg", QUALITY).size());
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ImageProcessingExecutorTest {
+
+  private static final long MB = 1024 * 1024;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private ImageProcessingExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  void batchLargerThanFreeSlotsIsRejectedWithoutRunningAnything() {
+    // One thread and one queue slot: room for two tasks
+    executor = new ImageProcessingExecutor(registry, 1, 1, 64);
+    AtomicInteger ran = new AtomicInteger();
+
+    assertThatThrownBy(
+            () ->
+                executor.submitAll(
+                    List.of(MB, MB, MB),
+                    List.of(ran::incrementAndGet, ran::incrementAndGet, ran::incrementAndGet)))
+        .isInstanceOf(ImageProcessingRejectedException.class);
+
+    assertThat(ran).hasValue(0);
+    assertThat(reservedBytes()).isZero();
+  }
+
+  @Test
+  void batchOverMemoryBudgetIsRejectedAsAWhole() throws Exception {
+    executor = new ImageProcessingExecutor(registry, 2, 8, 10);
+    CompletableFuture<Integer> running = executor.submit(4 * MB, this::blockUntilReleased);
+
+    assertThatThrownBy(() -> executor.submitAll(List.of(3 * MB, 4 * MB), List.of(() -> 1, () -> 2)))
+        .isInstanceOf(ImageProcessingRejectedException.class);
+    assertThat(reservedBytes()).isEqualTo(4 * MB);
+
+    release.countDown();
+    running.get(5, TimeUnit.SECONDS);
+    List<CompletableFuture<Integer>> batch =
+        executor.submitAll(List.of(3 * MB, 4 * MB), List.of(() -> 1, () -> 2));
+    assertThat(batch.get(0).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(batch.get(1).get(5, TimeUnit.SECONDS)).isEqualTo(2);
+  }
+
+  @Test
+  void slotsAndReservationsAreReturnedWhenTasksEnd() throws Exception {
+    executor = new ImageProcessingExecutor(registry, 1, 1, 64);
+
+    for (int round = 0; round < 5; round++) {
+      List<CompletableFuture<Integer>> batch =
+          executor.submitAll(
+              List.of(MB, MB),
+              List.of(
+                  () -> 1,
+                  () -> {
+                    throw new IllegalStateException("decode failed");
+                  }));
+      assertThat(batch.get(0).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+      assertThat(batch.get(1)).failsWithin(5, TimeUnit.SECONDS);
+    }
+    assertThat(reservedBytes()).isZero();
+  }
+
+  private Integer blockUntilReleased() throws InterruptedException {
+    release.await(5, TimeUnit.SECONDS);
+    return 0;
+  }
+
+  private long reservedBytes() {
+    return (long) registry.get("images.processing.memory.reserved").gauge().value();
+  }
+}
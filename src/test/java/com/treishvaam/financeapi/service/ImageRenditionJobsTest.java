@@ -0,0 +1,84 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.treishvaam.financeapi.model.ImageRenditionJob;
+import com.treishvaam.financeapi.repository.ImageRenditionJobRepository;
+import com.treishvaam.financeapi.service.ImageRenditionJobs.Claimed;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ImageRenditionJobsTest {
+
+  private final ImageRenditionJobRepository repository = mock(ImageRenditionJobRepository.class);
+  private final ImageRenditionJobs jobs = new ImageRenditionJobs(repository, "node-a");
+
+  private final ImageRenditionJob ownFresh = job("own", "node-a", Duration.ofSeconds(5));
+  private final ImageRenditionJob otherFresh = job("other", "node-b", Duration.ofSeconds(5));
+  private final ImageRenditionJob otherStale = job("stale", "node-b", Duration.ofMinutes(30));
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(jobs, "staleAfterMinutes", 10L);
+    when(repository.findByStateIn(any())).thenReturn(List.of(ownFresh, otherFresh, otherStale));
+    when(repository.claim(anyString(), eq("node-a"), any(), any())).thenReturn(1);
+  }
+
+  @Test
+  void startupResumesOwnJobsAndStaleOnes() {
+    List<Claimed> claimed = jobs.claimOrphans(true, Set.of());
+
+    assertThat(claimed).extracting(Claimed::jobId).containsExactly("own", "stale");
+    assertThat(claimed.get(0).originalName()).isEqualTo("own-original.jpeg");
+    verify(repository, never()).claim(eq("other"), any(), any(), any());
+  }
+
+  @Test
+  void sweepOnlyTakesOverStaleJobs() {
+    assertThat(jobs.claimOrphans(false, Set.of()))
+        .extracting(Claimed::jobId)
+        .containsExactly("stale");
+  }
+
+  @Test
+  void jobsRunningHereAreNeverClaimed() {
+    assertThat(jobs.claimOrphans(true, Set.of("own", "stale"))).isEmpty();
+  }
+
+  @Test
+  void jobClaimedByAnotherNodeFirstIsSkipped() {
+    when(repository.claim(eq("stale"), eq("node-a"), any(), any())).thenReturn(0);
+
+    assertThat(jobs.claimOrphans(false, Set.of())).isEmpty();
+  }
+
+  @Test
+  void renditionsAreListedOnlyOnceTheJobCompleted() {
+    when(repository.findById("own")).thenReturn(Optional.of(ownFresh));
+    assertThat(jobs.get("own").orElseThrow().renditions()).isEmpty();
+
+    ownFresh.setState(ImageRenditionJobs.COMPLETED);
+    assertThat(jobs.get("own").orElseThrow().renditions())
+        .containsExactlyElementsOf(ImageService.renditionUrls("own"));
+  }
+
+  private static ImageRenditionJob job(String id, String node, Duration age) {
+    ImageRenditionJob job =
+        new ImageRenditionJob(id, ImageRenditionJobs.QUEUED, id + "-original.jpeg", node);
+    job.setUpdatedAt(Instant.now().minus(age));
+    return job;
+  }
+}
@@ -0,0 +1,171 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures heap per concurrent upload: spooling must not buffer a large original on the heap, and
+ * the processing executor must keep the summed cost of concurrent decodes within its budget. Heap
+ * is measured as bytes allocated by the working thread, an upper bound on what it held at any
+ * moment.
+ */
+class ImageUploadMemoryTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(ImageUploadMemoryTest.class);
+
+  private static final long KB = 1024;
+  private static final long MB = 1024 * KB;
+  private static final long SPOOL_THRESHOLD = 512 * KB;
+  private static final int UPLOADS = 8;
+  private static final int[] WIDTHS = {1920, 1200, 800, 480};
+
+  private static final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final byte[] photo = TestImages.photoJpeg(3000, 2000);
+
+  @Test
+  void concurrentLargeUploadsAreSpooledWithoutBufferingOnTheHeap() throws Exception {
+    long uploadSize = 32 * MB;
+    // First use loads the digest provider and temp-file machinery; keep that out of the numbers
+    SpooledImage.of(new GeneratedInputStream(MB), MB, SPOOL_THRESHOLD).close();
+    List<Long> allocated =
+        runConcurrently(
+            () -> {
+              long before = threads.getCurrentThreadAllocatedBytes();
+              try (SpooledImage image =
+                  SpooledImage.of(
+                      new GeneratedInputStream(uploadSize), uploadSize, SPOOL_THRESHOLD)) {
+                long spooled = threads.getCurrentThreadAllocatedBytes() - before;
+                assertThat(image.size()).isEqualTo(uploadSize);
+                return spooled;
+              }
+            });
+
+    logger.info("Spooling {} x {}MB uploads allocated per thread: {}", UPLOADS, 32, allocated);
+    // Only copy buffers: a fraction of the threshold, nowhere near the upload itself
+    assertThat(allocated).allSatisfy(bytes -> assertThat(bytes).isLessThan(SPOOL_THRESHOLD));
+  }
+
+  @Test
+  void concurrentDecodesStayWithinTheReservedBudget() throws Exception {
+    long cost = ImageProcessingExecutor.estimateCost(3000, 2000);
+    // Room for two decodes at a time; the other uploads wait for a reservation
+    long budget = 2 * cost + cost / 2;
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ImageProcessingExecutor executor =
+        new ImageProcessingExecutor(registry, UPLOADS, UPLOADS, budget / MB);
+    AtomicLong peakReserved = new AtomicLong();
+    try {
+      List<Long> allocated =
+          runConcurrently(
+              () -> {
+                try (SpooledImage image =
+                    SpooledImage.of(new ByteArrayInputStream(photo), photo.length, 0)) {
+                  Callable<Long> process =
+                      () -> {
+                        peakReserved.accumulateAndGet(reserved(registry), Math::max);
+                        long before = threads.getCurrentThreadAllocatedBytes();
+                        BufferedImage previous =
+                            ImageService.decode(image, new ImageService.ImageMetadataDto());
+                        for (int width : WIDTHS) {
+                          previous = ImageService.scaleToWidth(previous, width);
+                        }
+                        return threads.getCurrentThreadAllocatedBytes() - before;
+                      };
+                  return submitWhenAdmitted(executor, cost, process).get(60, TimeUnit.SECONDS);
+                }
+              });
+
+      logger.info(
+          "Decoding {} uploads allocated per task: {} (estimated cost {}, peak reserved {})",
+          UPLOADS,
+          allocated,
+          cost,
+          peakReserved.get());
+      assertThat(peakReserved.get()).isLessThanOrEqualTo(budget);
+      // The estimate reserved per upload covers what its decode and resizes really allocate
+      assertThat(allocated).allSatisfy(bytes -> assertThat(bytes).isLessThanOrEqualTo(cost));
+      assertThat(reserved(registry)).isZero();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static <T> CompletableFuture<T> submitWhenAdmitted(
+      ImageProcessingExecutor executor, long cost, Callable<T> task) throws InterruptedException {
+    while (true) {
+      try {
+        return executor.submit(cost, task);
+      } catch (ImageProcessingRejectedException e) {
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  private static List<Long> runConcurrently(Callable<Long> upload) throws Exception {
+    ExecutorService uploaders = Executors.newFixedThreadPool(UPLOADS);
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < UPLOADS; i++) {
+        futures.add(uploaders.submit(upload));
+      }
+      List<Long> results = new ArrayList<>();
+      for (Future<Long> future : futures) {
+        results.add(future.get(120, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      uploaders.shutdownNow();
+    }
+  }
+
+  private static long reserved(SimpleMeterRegistry registry) {
+    return (long) registry.get("images.processing.memory.reserved").gauge().value();
+  }
+
+  /** A request body of {@code size} bytes that is produced as it is read, never held in memory. */
+  private static final class GeneratedInputStream extends InputStream {
+
+    private long remaining;
+
+    GeneratedInputStream(long size) {
+      this.remaining = size;
+    }
+
+    @Override
+    public int read() {
+      if (remaining == 0) return -1;
+      remaining--;
+      return (int) (remaining & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (remaining == 0) return -1;
+      int n = (int) Math.min(len, remaining);
+      for (int i = 0; i < n; i++) {
+        b[off + i] = (byte) (remaining - i);
+      }
+      remaining -= n;
+      return n;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.treishvaam.financeapi.service.FileStorageService.StoredObject;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MediaStoreTest {
+
+  @TempDir Path uploadDir;
+
+  private final FileStorageService fileStorageService = mock(FileStorageService.class);
+
+  @Test
+  void legacyWebpNameResolvesToTheRenditionUnderItsRealExtension() {
+    StoredObject stored = object("abc-800.jpg", "image/jpeg");
+    when(fileStorageService.stat("abc-800.webp")).thenReturn(Optional.empty());
+    when(fileStorageService.findFirstObject("abc-800.")).thenReturn(Optional.of("abc-800.jpg"));
+    when(fileStorageService.stat("abc-800.jpg")).thenReturn(Optional.of(stored));
+
+    MediaStore.MediaObject object = store().resolve("abc-800.webp").orElseThrow();
+
+    assertThat(object.name()).isEqualTo("abc-800.jpg");
+    assertThat(object.contentType()).isEqualTo("image/jpeg");
+  }
+
+  @Test
+  void storedWebpNameIsServedAsIs() {
+    StoredObject stored = object("old.webp", "image/jpeg");
+    when(fileStorageService.stat("old.webp")).thenReturn(Optional.of(stored));
+
+    assertThat(store().resolve("old.webp")).map(MediaStore.MediaObject::name).hasValue("old.webp");
+    verify(fileStorageService, never()).findFirstObject(anyString());
+  }
+
+  private MediaStore store() {
+    return new MediaStore(fileStorageService, uploadDir.toString(), 64, 16);
+  }
+
+  private static StoredObject object(String name, String contentType) {
+    return new StoredObject(name, 1234, "etag-" + name, contentType, Instant.now());
+  }
+}
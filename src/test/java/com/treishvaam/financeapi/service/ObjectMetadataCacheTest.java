@@ -0,0 +1,60 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treishvaam.financeapi.service.FileStorageService.StoredObject;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class ObjectMetadataCacheTest {
+
+  @Test
+  void storedObjectIsServedUntilEvicted() {
+    ObjectMetadataCache cache = new ObjectMetadataCache(Duration.ofMinutes(5), 10);
+    StoredObject logo = object("logo.webp");
+
+    cache.put(logo);
+    assertThat(cache.get("logo.webp")).isEqualTo(logo);
+    assertThat(cache.get("missing.webp")).isNull();
+
+    cache.evict("logo.webp");
+    assertThat(cache.get("logo.webp")).isNull();
+  }
+
+  @Test
+  void expiredEntryIsAMiss() throws InterruptedException {
+    ObjectMetadataCache cache = new ObjectMetadataCache(Duration.ofMillis(1), 10);
+
+    cache.put(object("a.webp"));
+    Thread.sleep(5);
+
+    assertThat(cache.get("a.webp")).isNull();
+  }
+
+  @Test
+  void zeroTtlDisablesCaching() {
+    ObjectMetadataCache cache = new ObjectMetadataCache(Duration.ZERO, 10);
+
+    cache.put(object("a.webp"));
+
+    assertThat(cache.get("a.webp")).isNull();
+  }
+
+  @Test
+  void fullCacheStartsOverInsteadOfGrowing() {
+    ObjectMetadataCache cache = new ObjectMetadataCache(Duration.ofMinutes(5), 2);
+
+    cache.put(object("a.webp"));
+    cache.put(object("b.webp"));
+    cache.put(object("c.webp"));
+
+    assertThat(cache.get("a.webp")).isNull();
+    assertThat(cache.get("b.webp")).isNull();
+    assertThat(cache.get("c.webp")).isNotNull();
+  }
+
+  private static StoredObject object(String name) {
+    return new StoredObject(name, 1234, "\"etag-" + name + "\"", "image/webp", Instant.now());
+  }
+}
@@ -0,0 +1,69 @@
+package com.treishvaam.financeapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treishvaam.financeapi.service.RenditionEncoder.EncodedBuffer;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+class RenditionEncoderTest {
+
+  private static final double MAX_QUALITY = 0.85;
+  private static final double FLOOR_QUALITY = 0.40;
+
+  private static final BufferedImage photo = TestImages.photo(800, 533);
+  private final RenditionEncoder encoder = new RenditionEncoder();
+
+  @Test
+  void outputWithinBudgetAtMaxQualityIsKept() throws IOException {
+    long atMax = encoder.encode(photo, "jpeg", MAX_QUALITY).size();
+
+    EncodedBuffer encoded = encoder.encodeWithinBudget(photo, "jpeg", MAX_QUALITY, atMax);
+
+    assertThat(encoded.size()).isEqualTo(atMax);
+  }
+
+  @Test
+  void tightBudgetLowersQualityUntilTheOutputFits() throws IOException {
+    long atMax = encoder.encode(photo, "jpeg", MAX_QUALITY).size();
+    long atFloor = encoder.encode(photo, "jpeg", FLOOR_QUALITY).size();
+    long budget = (atMax + atFloor) / 2;
+
+    EncodedBuffer encoded = encoder.encodeWithinBudget(photo, "jpeg", MAX_QUALITY, budget);
+
+    assertThat((long) encoded.size()).isLessThanOrEqualTo(budget).isGreaterThan(atFloor);
+  }
+
+  @Test
+  void budgetBelowTheFloorFallsBackToFloorQuality() throws IOException {
+    long atFloor = encoder.encode(photo, "jpeg", FLOOR_QUALITY).size();
+
+    EncodedBuffer encoded = encoder.encodeWithinBudget(photo, "jpeg", MAX_QUALITY, 1);
+
+    assertThat((long) encoded.size()).isEqualTo(atFloor);
+  }
+
+  @Test
+  void transparentImageIsFlattenedForJpeg() throws IOException {
+    BufferedImage transparent = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+
+    EncodedBuffer encoded = encoder.encodeWithinBudget(transparent, "jpeg", MAX_QUALITY, 1024);
+    BufferedImage decoded = ImageIO.read(encoded.toInputStream());
+
+    assertThat(decoded.getColorModel().hasAlpha()).isFalse();
+    assertThat(new Color(decoded.getRGB(20, 20))).isEqualTo(Color.WHITE);
+  }
+
+  @Test
+  void onlyExplicitlyAcceptedFormatsAreNegotiated() {
+    assertThat(encoder.negotiate(null)).isEqualTo("jpeg");
+    assertThat(encoder.negotiate("image/*,*/*;q=0.8")).isEqualTo("jpeg");
+    assertThat(encoder.negotiate("not a media type")).isEqualTo("jpeg");
+    assertThat(encoder.negotiate("image/jpeg")).isEqualTo("jpeg");
+    assertThat(encoder.negotiate("image/" + encoder.preferredFormat()))
+        .isEqualTo(encoder.preferredFormat());
+  }
+}
@@ -0,0 +1,100 @@
+package com.treishvaam.financeapi.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+class SitemapInvalidationDebouncerTest {
+
+  private static final long SHARD = SitemapService.POSTS_PER_SITEMAP;
+
+  private final SitemapService sitemapService = mock(SitemapService.class);
+  private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+  private final SitemapInvalidationDebouncer debouncer =
+      new SitemapInvalidationDebouncer(sitemapService, taskScheduler);
+
+  @BeforeEach
+  void setUp() throws IOException {
+    doReturn(mock(ScheduledFuture.class))
+        .when(taskScheduler)
+        .schedule(any(Runnable.class), any(Instant.class));
+    when(sitemapService.regeneratePostsSitemap(anyInt())).thenReturn(true);
+    when(sitemapService.regenerateNewsSitemap()).thenReturn(true);
+  }
+
+  @Test
+  void burstOfPostEventsRewritesEachTouchedShardOnce() throws IOException {
+    debouncer.postChanged(1);
+    debouncer.postChanged(2);
+    debouncer.postChanged(SHARD + 5);
+    debouncer.postChanged(3);
+
+    verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    debouncer.flush();
+
+    verify(sitemapService).regeneratePostsSitemap(0);
+    verify(sitemapService).regeneratePostsSitemap(1);
+    verify(sitemapService).regenerateNewsSitemap();
+    verify(sitemapService, never()).regenerateCategoriesSitemap();
+    verify(sitemapService).regenerateSitemapIndex();
+    verify(sitemapService, never()).regenerateAll();
+  }
+
+  @Test
+  void fullRebuildSupersedesShardRewrites() throws IOException {
+    debouncer.postChanged(1);
+    debouncer.everythingChanged();
+
+    debouncer.flush();
+
+    verify(sitemapService).regenerateAll();
+    verify(sitemapService, never()).regeneratePostsSitemap(anyInt());
+  }
+
+  @Test
+  void unchangedFilesLeaveTheIndexAlone() throws IOException {
+    when(sitemapService.regeneratePostsSitemap(anyInt())).thenReturn(false);
+    when(sitemapService.regenerateNewsSitemap()).thenReturn(false);
+    debouncer.postChanged(1);
+
+    debouncer.flush();
+
+    verify(sitemapService, never()).regenerateSitemapIndex();
+  }
+
+  @Test
+  void eventsAfterAFlushOpenANewWindow() throws IOException {
+    debouncer.postChanged(1);
+    debouncer.flush();
+    debouncer.categoriesChanged();
+
+    verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    debouncer.flush();
+
+    verify(sitemapService).regenerateCategoriesSitemap();
+    verify(sitemapService, times(1)).regeneratePostsSitemap(0);
+  }
+
+  @Test
+  void failedRewriteFallsBackToAFullRebuild() throws IOException {
+    when(sitemapService.regeneratePostsSitemap(0)).thenThrow(new IOException("disk full"));
+    debouncer.postChanged(1);
+
+    debouncer.flush();
+    debouncer.flush();
+
+    verify(sitemapService).regenerateAll();
+  }
+}
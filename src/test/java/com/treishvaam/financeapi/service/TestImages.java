@@ -0,0 +1,47 @@
+package com.treishvaam.financeapi.service;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+/** Photo-like fixtures for the image pipeline tests, the same pixels on every run. */
+final class TestImages {
+
+  private TestImages() {}
+
+  /**
+   * A gradient covered in small random squares. The noise keeps encoders honest: flat colour would
+   * compress to nothing.
+   */
+  static BufferedImage photo(int width, int height) {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.DARK_GRAY));
+    g.fillRect(0, 0, width, height);
+    Random random = new Random(42);
+    // One 6px square per 300 pixels: 20,000 on a 3000x2000 photo
+    for (int i = 0; i < width * height / 300; i++) {
+      g.setColor(new Color(random.nextInt(0xFFFFFF)));
+      g.fillRect(random.nextInt(width), random.nextInt(height), 6, 6);
+    }
+    g.dispose();
+    return image;
+  }
+
+  /** {@link #photo} encoded as a JPEG upload. */
+  static byte[] photoJpeg(int width, int height) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      ImageIO.write(photo(width, height), "jpeg", out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}